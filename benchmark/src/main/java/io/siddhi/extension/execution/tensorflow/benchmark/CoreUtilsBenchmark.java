@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.benchmark;
+
+import io.siddhi.extension.execution.tensorflow.util.CoreUtils;
+import io.siddhi.extension.execution.tensorflow.util.TensorTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tensorflow.Tensor;
+
+import java.nio.FloatBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the tensor conversions done by tensorFlow:predict for each event, for inputs of the size of the bundled
+ * KMeans, Regression and MNIST models, reporting operations/us and the p50/p99 latency. Run with '-prof gc' to see
+ * the allocation rate of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoreUtilsBenchmark {
+
+    //number of input and output elements of each model
+    @Param({"2", "784"})
+    private int size;
+
+    private String arrayAsString;
+    private float[] floatArray;
+    private long[] outputShape;
+    private List<Tensor> outputTensors;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        floatArray = new float[size];
+        StringBuilder builder = new StringBuilder("float:[");
+        for (int i = 0; i < size; i++) {
+            floatArray[i] = random.nextInt(256) / 255f;
+            builder.append(i == 0 ? "" : ", ").append(floatArray[i]);
+        }
+        arrayAsString = builder.append("]").toString();
+        outputShape = new long[]{1, size};
+        outputTensors = new ArrayList<>(1);
+    }
+
+    @Benchmark
+    public long[] getShapeOfArrayAsString() {
+        return CoreUtils.getShapeOfArrayAsString(arrayAsString);
+    }
+
+    @Benchmark
+    public long createTensorFromString() throws CharacterCodingException {
+        Tensor tensor = CoreUtils.createTensor(arrayAsString);
+        try {
+            return tensor.numBytes();
+        } finally {
+            TensorTracker.close(tensor);
+        }
+    }
+
+    @Benchmark
+    public long createTensorFromArray() throws CharacterCodingException {
+        Tensor tensor = CoreUtils.createTensor(floatArray);
+        try {
+            return tensor.numBytes();
+        } finally {
+            TensorTracker.close(tensor);
+        }
+    }
+
+    //baseline for getOutputObjectArray, which closes the tensors it decodes so they are created in each call
+    @Benchmark
+    public long createOutputTensor() {
+        try (Tensor tensor = Tensor.create(outputShape, FloatBuffer.wrap(floatArray))) {
+            return tensor.numBytes();
+        }
+    }
+
+    @Benchmark
+    public Object[] getOutputObjectArray() {
+        outputTensors.clear();
+        outputTensors.add(Tensor.create(outputShape, FloatBuffer.wrap(floatArray)));
+        return CoreUtils.getOutputObjectArray(outputTensors, size);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.benchmark;
+
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.Tensor;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * The String encoded array handling of 2.0.x kept as the baseline of the parsing benchmarks
+ */
+public class LegacyStringTensorParser {
+
+    public static long[] getShapeOfArrayAsString(String arrayAsString) {
+        arrayAsString = arrayAsString.substring(arrayAsString.lastIndexOf(":") + 1);
+        int noDims = 0;
+        for (int i = 0; i < arrayAsString.length(); i++) {
+            if (arrayAsString.charAt(i) == ' ') {
+                continue;
+            } else if (arrayAsString.charAt(i) == '[') {
+                noDims++;
+            } else {
+                break;
+            }
+        }
+
+        long[] shape = new long[noDims];
+        Stack bracketStack = new Stack();
+        Stack countStack = new Stack();
+
+        for (int i = 0; i < arrayAsString.length(); i++) {
+            if (arrayAsString.charAt(i) == '[') {
+                bracketStack.push("[");
+                countStack.push(0);
+            } else if (arrayAsString.charAt(i) == ',') {
+                int tempNum = (int) countStack.pop();
+                countStack.push(tempNum + 1);
+            } else if (arrayAsString.charAt(i) == ']') {
+                int tempSize = (int) countStack.pop();
+                tempSize = tempSize + 1;
+                bracketStack.pop();
+                if (shape[bracketStack.size()] == 0) {
+                    shape[bracketStack.size()] = tempSize;
+                } else if (!(shape[bracketStack.size()] == tempSize)) {
+                    throw new SiddhiAppRuntimeException("Array size is inconsistent");
+                }
+            }
+        }
+        return shape;
+    }
+
+    public static Tensor createTensor(String arrayAsString) throws CharacterCodingException {
+        long[] shape = getShapeOfArrayAsString(arrayAsString);
+        Tensor tensor;
+
+        String dataType = arrayAsString.substring(0, arrayAsString.lastIndexOf(":"));
+        dataType = dataType.replaceAll("\\s", "");
+        arrayAsString = arrayAsString.substring(arrayAsString.lastIndexOf(":") + 1);
+
+        arrayAsString = arrayAsString.replaceAll("]", " ");
+        arrayAsString = arrayAsString.replaceAll(",", " ");
+        arrayAsString = arrayAsString.replaceAll("\\[", " ");
+        String[] stringArray = arrayAsString.split(" ");
+
+        List tempList = new LinkedList();
+        for (String string : stringArray) {
+            if (string != null && (!string.isEmpty())) {
+                tempList.add(string);
+            }
+        }
+
+        //handling scalars
+        if (tempList.size() == 1) {
+            switch (dataType) {
+                case "float":
+                    tensor = Tensor.create(Float.parseFloat((String) tempList.get(0)));
+                    return tensor;
+                case "int":
+                    tensor = Tensor.create(Integer.parseInt((String) tempList.get(0)));
+                    return tensor;
+                case "double":
+                    tensor = Tensor.create(Double.parseDouble((String) tempList.get(0)));
+                    return tensor;
+                case "long":
+                    tensor = Tensor.create(Long.parseLong((String) tempList.get(0)));
+                    return tensor;
+                default:
+                    throw new SiddhiAppRuntimeException("Number encoded as String should have one of int, " +
+                            "long, float, double as prefix but given " + dataType);
+            }
+        }
+
+        //handling non-scalars
+        switch (dataType) {
+            case "float":
+                FloatBuffer floatBuffer = FloatBuffer.allocate(tempList.size());
+                for (Object string : tempList) {
+                    floatBuffer.put(Float.parseFloat((String) string));
+                }
+                floatBuffer.flip();
+                tensor = Tensor.create(shape, floatBuffer);
+                return tensor;
+
+            case "int":
+                IntBuffer intBuffer = IntBuffer.allocate(tempList.size());
+                for (Object string : tempList) {
+                    intBuffer.put(Integer.parseInt((String) string));
+                }
+                intBuffer.flip();
+                tensor = Tensor.create(shape, intBuffer);
+                return tensor;
+
+            case "double":
+                DoubleBuffer doubleBuffer = DoubleBuffer.allocate(tempList.size());
+                for (Object string : tempList) {
+                    doubleBuffer.put(Double.parseDouble((String) string));
+                }
+                doubleBuffer.flip();
+                tensor = Tensor.create(shape, doubleBuffer);
+                return tensor;
+
+            case "long":
+                LongBuffer longBuffer = LongBuffer.allocate(tempList.size());
+                for (Object string : tempList) {
+                    longBuffer.put(Long.parseLong((String) string));
+                }
+                longBuffer.flip();
+                tensor = Tensor.create(shape, longBuffer);
+                return tensor;
+
+            default:
+                throw new SiddhiAppRuntimeException("Array encoded as String should have one of int, long, " +
+                        "float, double as prefix but given " + dataType);
+        }
+    }
+}
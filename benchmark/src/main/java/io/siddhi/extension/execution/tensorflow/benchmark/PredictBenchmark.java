@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.benchmark;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends events through tensorFlow:predict of a running Siddhi app, reporting events/sec and the p50/p99 latency of
+ * each event. Run with '-prof gc' to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredictBenchmark {
+    //the models bundled with the tests, relative to the root of the repository
+    private static final String MODELS_DIR = System.getProperty("models.dir",
+            "component/src/test/resources/TensorFlowModels");
+
+    @Param({"KMeans", "Regression", "MNIST"})
+    private String model;
+
+    private SiddhiManager siddhiManager;
+    private SiddhiAppRuntime siddhiAppRuntime;
+    private InputHandler inputHandler;
+    private Object[] data;
+    private long received;
+
+    @Setup
+    public void setup() {
+        String modelPath = new File(MODELS_DIR, model).getAbsolutePath();
+        String siddhiApp;
+        switch (model) {
+            case "KMeans":
+                siddhiApp = "define stream InputStream (x string);" +
+                        "from InputStream#tensorFlow:predict('" + modelPath + "', 'inputPoint', 'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;";
+                data = new Object[]{"float:[1, -2]"};
+                break;
+            case "Regression":
+                siddhiApp = "define stream InputStream (x string);" +
+                        "from InputStream#tensorFlow:predict('" + modelPath + "', 'inputPoint', 'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;";
+                data = new Object[]{"double:[1, -2]"};
+                break;
+            default:
+                siddhiApp = "define stream InputStream (x string, y string);" +
+                        "from InputStream#tensorFlow:predict('" + modelPath + "', 'inputPoint', 'dropout', " +
+                        "'outputPoint', x, y) " +
+                        "select * " +
+                        "insert into OutputStream;";
+                data = new Object[]{randomArrayAsString(784), onesAsString(1024)};
+        }
+
+        siddhiManager = new SiddhiManager();
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                received += events.length;
+            }
+        });
+        siddhiAppRuntime.start();
+        inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (received == 0) {
+            throw new IllegalStateException("No predictions were received from the " + model + " model");
+        }
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    //the app processes the event synchronously, so each call returns after the prediction is emitted
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void throughput() throws InterruptedException {
+        inputHandler.send(data);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency() throws InterruptedException {
+        inputHandler.send(data);
+    }
+
+    private static String randomArrayAsString(int length) {
+        Random random = new Random(7);
+        StringBuilder builder = new StringBuilder("float:[");
+        for (int i = 0; i < length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(random.nextInt(256) / 255f);
+        }
+        return builder.append("]").toString();
+    }
+
+    private static String onesAsString(int length) {
+        StringBuilder builder = new StringBuilder("float:[");
+        for (int i = 0; i < length; i++) {
+            builder.append(i == 0 ? "1" : ", 1");
+        }
+        return builder.append("]").toString();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.benchmark;
+
+import io.siddhi.extension.execution.tensorflow.util.CoreUtils;
+import io.siddhi.extension.execution.tensorflow.util.TensorTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tensorflow.Tensor;
+
+import java.nio.charset.CharacterCodingException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single pass String encoded array parser against the 2.0.x implementation. Run with
+ * '-prof gc' to see the allocation rate of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringTensorParsingBenchmark {
+
+    //a KMeans point, a small regression batch and a MNIST image
+    @Param({"float:[1, 2]", "double:[[1.5, 2.25, 3], [4, 5, 6.125]]", "mnist"})
+    private String input;
+
+    private String arrayAsString;
+
+    @Setup
+    public void setup() {
+        if (!input.equals("mnist")) {
+            arrayAsString = input;
+            return;
+        }
+        Random random = new Random(7);
+        StringBuilder builder = new StringBuilder("float:[");
+        for (int i = 0; i < 784; i++) {
+            builder.append(i == 0 ? "" : ", ").append(random.nextInt(256) / 255f);
+        }
+        arrayAsString = builder.append("]").toString();
+    }
+
+    @Benchmark
+    public long[] legacyShape() {
+        return LegacyStringTensorParser.getShapeOfArrayAsString(arrayAsString);
+    }
+
+    @Benchmark
+    public long[] currentShape() {
+        return CoreUtils.getShapeOfArrayAsString(arrayAsString);
+    }
+
+    @Benchmark
+    public long legacyCreateTensor() throws CharacterCodingException {
+        try (Tensor tensor = LegacyStringTensorParser.createTensor(arrayAsString)) {
+            return tensor.numBytes();
+        }
+    }
+
+    @Benchmark
+    public long currentCreateTensor() throws CharacterCodingException {
+        Tensor tensor = CoreUtils.createTensor(arrayAsString);
+        try {
+            return tensor.numBytes();
+        } finally {
+            TensorTracker.close(tensor);
+        }
+    }
+}
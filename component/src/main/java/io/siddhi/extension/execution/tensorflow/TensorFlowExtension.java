@@ -18,46 +18,116 @@
 
 package io.siddhi.extension.execution.tensorflow;
 
-import com.google.protobuf.InvalidProtocolBufferException;
 import io.siddhi.annotation.Example;
 import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.ParameterOverload;
 import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.SystemParameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.stream.MetaStreamEvent;
 import io.siddhi.core.event.stream.StreamEvent;
 import io.siddhi.core.event.stream.StreamEventCloner;
+import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.event.stream.holder.SnapshotableStreamEventQueue;
 import io.siddhi.core.event.stream.holder.StreamEventClonerHolder;
 import io.siddhi.core.event.stream.populater.ComplexEventPopulater;
 import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
 import io.siddhi.core.executor.ConstantExpressionExecutor;
 import io.siddhi.core.executor.ExpressionExecutor;
 import io.siddhi.core.executor.VariableExpressionExecutor;
 import io.siddhi.core.query.processor.ProcessingMode;
 import io.siddhi.core.query.processor.Processor;
 import io.siddhi.core.query.processor.stream.StreamProcessor;
+import io.siddhi.core.util.Scheduler;
 import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.parser.SchedulerParser;
+import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.tensorflow.model.InferencePlan;
+import io.siddhi.extension.execution.tensorflow.model.LoadedModel;
+import io.siddhi.extension.execution.tensorflow.model.ModelLoading;
+import io.siddhi.extension.execution.tensorflow.model.ModelRegistry;
+import io.siddhi.extension.execution.tensorflow.model.ModelVersion;
+import io.siddhi.extension.execution.tensorflow.model.SessionConfig;
+import io.siddhi.extension.execution.tensorflow.util.AsyncInferenceStage;
+import io.siddhi.extension.execution.tensorflow.util.BatchTensorBuilder;
 import io.siddhi.extension.execution.tensorflow.util.CoreUtils;
+import io.siddhi.extension.execution.tensorflow.util.ImageDecoder;
+import io.siddhi.extension.execution.tensorflow.util.InferenceMetrics;
+import io.siddhi.extension.execution.tensorflow.util.InferenceMetrics.Stage;
+import io.siddhi.extension.execution.tensorflow.util.InferenceScheduler;
+import io.siddhi.extension.execution.tensorflow.util.OutputMode;
+import io.siddhi.extension.execution.tensorflow.util.PredictionCache;
+import io.siddhi.extension.execution.tensorflow.util.QueryOptions;
+import io.siddhi.extension.execution.tensorflow.util.RecurrentState;
+import io.siddhi.extension.execution.tensorflow.util.SequenceWindow;
+import io.siddhi.extension.execution.tensorflow.util.TensorTracker;
 import io.siddhi.query.api.definition.AbstractDefinition;
 import io.siddhi.query.api.definition.Attribute;
 import org.apache.log4j.Logger;
-import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Output;
 import org.tensorflow.Session;
+import org.tensorflow.Shape;
 import org.tensorflow.Tensor;
-import org.tensorflow.framework.MetaGraphDef;
 import org.tensorflow.framework.SignatureDef;
+import org.tensorflow.framework.TensorInfo;
 
-import java.util.LinkedList;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import static io.siddhi.extension.execution.tensorflow.util.Constants.DEFAULT_ASYNC_QUEUE_SIZE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.INFERENCE_LANES;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_ASYNC_QUEUE_SIZE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_ASYNC_WORKERS;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_BATCH_MODE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_BATCH_SIZE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_BATCH_TIMEOUT;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_CACHE_SIZE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_CACHE_TTL;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_GRAPH_OPTIMIZATION;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_IMAGE_COLOR;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_IMAGE_INPUTS;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_IMAGE_NORMALIZE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_IMAGE_SIZE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_INFERENCE_WEIGHT;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_INTER_OP_PARALLELISM;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_INTRA_OP_PARALLELISM;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_MODEL_LOADING;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_MODEL_RELOAD_INTERVAL;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_MODEL_TAGS;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_OUTPUT_MODE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_RECURRENT_STATE;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_SEQUENCE_INPUTS;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_SEQUENCE_LENGTH;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_SIGNATURE_DEF_KEYS;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_WARMUP_BATCH_SIZES;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_WARMUP_RUNS;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.OPTION_XLA_JIT;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.SESSION_OPTIONS;
+import static io.siddhi.extension.execution.tensorflow.util.Constants.SUPPORTED_OPTIONS;
 import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.createTensor;
+import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.createZerosTensor;
 import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getOutputObjectArray;
+import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getOutputObjectArrays;
+import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getOutputValueArrays;
+import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getOutputValues;
 import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getReturnAttributeList;
+import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.hasBatchDimension;
 
 /***
  * Stream processor extension to support inferences from TensorFlow models
@@ -68,12 +138,14 @@ import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getReturnA
         description = "Performs inferences (prediction) from an already built TensorFlow machine learning model. " +
                 "The types of models are unlimited (including image classifiers, deep learning models) as long as " +
                 "they satisfy the following conditions.\n" +
-                "1. They are saved with the tag 'serve' in SavedModel format for more info see [here]" +
+                "1. They are saved with the tag 'serve', or the tags given by the 'model.tags' option, in " +
+                "SavedModel format for more info see [here]" +
                 "(https://github.com/tensorflow/tensorflow/blob/master/tensorflow/python/saved_model/README.md).\n" +
                 "2. Model is initially trained and ready for inferences\n" +
                 "3. Inference logic is written and saved in the model\n" +
                 "4. signature_def is properly included in the metaGraphDef (a protocol buffer file which has " +
-                "information about the graph) and the key for prediction signature def is 'serving-default'\n" +
+                "information about the graph) and the key for prediction signature def is 'serving-default', " +
+                "unless other keys are given by the 'signature.def.keys' option\n" +
                 "\n" +
                 "Also the prerequisites for inference are as follows.\n" +
                 "1. User knows the names of the input and output nodes\n" +
@@ -81,6 +153,16 @@ import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getReturnA
                 "\n" +
                 "Since each input is directly used to create a Tensor they should be of compatible shape and " +
                 "data type with the model.\n" +
+                "All the queries of the JVM pointing to the same model directory share a single loaded model, " +
+                "which is released when the last of them is stopped. The partitions of a query share it as well, " +
+                "and run their event chunks on its session concurrently.\n" +
+                "Only the output nodes with return attributes used by the query are run and decoded, so the " +
+                "return attributes which are not used are null.\n" +
+                "When statistics are enabled for the Siddhi app, each query reports the latency of feeding the " +
+                "inputs, running the model and decoding the outputs, the number of events processed, failed and " +
+                "dropped, the prediction cache hits and misses, the number of batches, the native memory " +
+                "held by tensors and the inferences waiting for an inference lane under " +
+                "'<prefix>.SiddhiApps.<app>.Siddhi.Queries.<query>.tensorFlow'.\n" +
                 "The information related to input and output nodes can be retrieved from saved model signature def." +
                 "signature_def can be read by using the saved_model_cli commands found at " +
                 "[https://www.tensorflow.org/programmers_guide/saved_model]" +
@@ -105,7 +187,9 @@ import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getReturnA
         parameters = {
                 @Parameter(
                         name = "absolute.path.to.model",
-                        description = "This is the absolute path to the model folder in the local machine.",
+                        description = "This is the absolute path to the model folder in the local machine. The " +
+                                "folder either holds the SavedModel or, as laid out by TensorFlow Serving, numeric " +
+                                "version sub folders each holding a SavedModel where the largest version is used.",
                         type = {DataType.STRING},
                         dynamic = true
                 ),
@@ -130,11 +214,116 @@ import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getReturnA
                 @Parameter(
                         name = "attribute",
                         description = "This is a variable length parameter. These are the attributes coming with " +
-                                "events. Note that arrays should be cast to objects and sent.",
+                                "events. Note that arrays should be cast to objects and sent. INT, LONG, FLOAT, " +
+                                "DOUBLE and BOOL attributes are fed as scalar Tensors. OBJECT attributes holding " +
+                                "float[], double[], int[], long[] or their 2 dimensional arrays are written " +
+                                "directly into Tensors. STRING attributes should encode the array with its data " +
+                                "type as prefix, for example 'float:[[1.0, 2.0]]'. OBJECT attributes of the inputs " +
+                                "given in the 'image.inputs' option should hold the bytes of PNG or JPEG images.",
                         type = {DataType.INT, DataType.STRING, DataType.DOUBLE, DataType.LONG, DataType.FLOAT,
                                 DataType.BOOL, DataType.OBJECT},
                         dynamic = true
                 ),
+                @Parameter(
+                        name = "option",
+                        description = "This is a variable length parameter. Optional settings given as constant " +
+                                "'key:value' strings after the attributes. Supported options are as follows.\n" +
+                                "`batch.mode:true` - Stacks the inputs of all events in an event chunk along a new " +
+                                "leading batch dimension and runs a single inference for the chunk. All the inputs " +
+                                "and outputs of the signature def should have a variable leading dimension.\n" +
+                                "`batch.size:<int>` - Holds the events in an internal buffer until the given number " +
+                                "of events is reached and then runs a single inference for them. Implies batch mode." +
+                                "\n" +
+                                "`batch.timeout.ms:<long>` - Holds the events in an internal buffer for at most the " +
+                                "given number of milliseconds after the first buffered event before running a " +
+                                "single inference for them. When used with `batch.size` the buffer is released as " +
+                                "soon as either limit is hit. Implies batch mode.\n" +
+                                "`model.reload.interval.ms:<long>` - Checks the model folder for a new version at " +
+                                "the given interval. A new version is loaded in the background and used from the " +
+                                "next event chunk onwards if its signature def has the same inputs and outputs. " +
+                                "Otherwise the error is logged and the current version stays in use. The queries " +
+                                "sharing a model should use the same interval.\n" +
+                                "`async.workers:<int>` - Runs the inferences on the given number of worker threads " +
+                                "instead of the thread delivering the events. The results are sent downstream in " +
+                                "the arrival order of the events by a separate thread. Events being inferred are not " +
+                                "part of the snapshots of the Siddhi app.\n" +
+                                "`async.queue.size:<int>` - The number of event chunks which can wait for their " +
+                                "inference in async mode, after which the thread delivering the events is blocked " +
+                                "until one is sent downstream. Default is " + DEFAULT_ASYNC_QUEUE_SIZE + ".\n" +
+                                "`model.tags:<string>` - Comma separated tags of the MetaGraph to load from the " +
+                                "SavedModel. Default is 'serve'.\n" +
+                                "`signature.def.keys:<string>` - Comma separated keys of the signature defs to " +
+                                "use. Default is 'serving_default'. The inputs and outputs of all the given " +
+                                "signature defs are fed and fetched by a single run of the model, and all of them " +
+                                "should be given as the node names. A key used for different tensors by several " +
+                                "signature defs is given as '<signature def key>_<key>'.\n" +
+                                "`intra.op.parallelism:<int>`, `inter.op.parallelism:<int>`, " +
+                                "`graph.optimization:<bool>` and `xla.jit:<bool>` - Override the system parameters " +
+                                "of the same name for the session of this query.\n" +
+                                "`cache.size:<int>` - Caches the outputs predicted for up to the given number of " +
+                                "distinct input values, least recently used first out. Events with the same input " +
+                                "values as a cached entry are not inferred again, so this should only be used with " +
+                                "models giving the same outputs for the same inputs. The cache is invalidated when a " +
+                                "new model version is loaded.\n" +
+                                "`cache.ttl.ms:<long>` - Time in milliseconds a cached output is used for. By " +
+                                "default the outputs are kept until they are evicted.\n" +
+                                "`inference.weight:<int>` - Share of the inference lanes given to this query " +
+                                "relative to the other queries when the 'inference.lanes' system parameter is set. " +
+                                "Default is 1.\n" +
+                                "`model.loading:<string>` - Overrides the system parameter of the same name for " +
+                                "this query.\n" +
+                                "`warmup.runs:<int>` - Runs the model the given number of times on inputs of zeros " +
+                                "before the events are accepted, so that the first events do not wait for " +
+                                "TensorFlow to optimize the graph and allocate its memory. The warm up is done when " +
+                                "the query is started, or after the model is loaded by the first event when loaded " +
+                                "lazily. Unknown dimensions of the inputs are given the batch size for the leading " +
+                                "dimension and 1 for the others. A failed warm up is logged and ignored.\n" +
+                                "`warmup.batch.sizes:<string>` - Comma separated batch sizes to warm up the model " +
+                                "with, each for the given number of runs. Default is the 'batch.size' option, or 1.\n" +
+                                "`output.mode:<string>` - 'flatten' (default) sends each element of the outputs as " +
+                                "an attribute. 'array' sends each output as a single OBJECT attribute named by its " +
+                                "output node name, holding a primitive array of the rank of the output, such as " +
+                                "float[] or float[][], or a boxed value for scalars. UINT8 outputs are given as " +
+                                "byte arrays and STRING outputs as String arrays. 'tensor' sends each output as a " +
+                                "single OBJECT attribute holding a TensorValue with the shape, data type and flat " +
+                                "values of the output. Both keep the dimensions unknown to the signature def. In " +
+                                "batch mode each event gets its row of the leading batch dimension.\n" +
+                                "`image.inputs:<string>` - Comma separated names of the input nodes fed with PNG or " +
+                                "JPEG images given as byte[] in OBJECT attributes. The images are decoded, resized " +
+                                "and converted to the channels of the input straight into the Tensor. The input " +
+                                "should be of type uint8 or float with the shape [height, width, channels], " +
+                                "[height, width] or a flattened one after the batch dimension. In batch mode the " +
+                                "images of an event chunk are decoded in parallel, and an event with an image which " +
+                                "can not be decoded is dropped.\n" +
+                                "`image.size:<string>` - Height and width of the images as 'height,width'. Required " +
+                                "when they are not fixed in the signature def.\n" +
+                                "`image.color:<string>` - 'gray' or 'rgb'. Default is the channels of the input in " +
+                                "the signature def, or 'gray' when it has none.\n" +
+                                "`image.normalize:<bool>` - Scales the pixels of float inputs to [0, 1]. Default is " +
+                                "true.\n" +
+                                "`sequence.inputs:<string>` - Comma separated names of the input nodes fed with the " +
+                                "sequence of the last readings, such as for recurrent or 1D convolutional models. " +
+                                "The attribute of each event is a reading, given as a number or as a float[], " +
+                                "double[], int[] or long[] of its features. The readings are kept in a ring buffer " +
+                                "per partition key, which is part of the snapshots of the Siddhi app, and the " +
+                                "input is fed with them oldest first in the shape [length, features] or [length] " +
+                                "of the signature def. Events are not inferred and are dropped until the sequence " +
+                                "of their key is complete. Can not be used along with 'async.workers' or " +
+                                "'cache.size'.\n" +
+                                "`sequence.length:<int>` - Number of readings in a sequence. Required when it is " +
+                                "not fixed in the signature def.\n" +
+                                "`recurrent.state:<string>` - Comma separated '<output node name>=<input node " +
+                                "name>' pairs of a stateful model, such as its hidden and cell states. The input " +
+                                "of each pair is fed with the output of the previous event of the same partition " +
+                                "key, starting from zeros, so that each event is a single step of the model. These " +
+                                "nodes are not given as node names in the query, their shapes should be fixed other " +
+                                "than the batch dimension, and the states are kept off the heap and are part of " +
+                                "the snapshots of the Siddhi app. Can not be used along with batch mode, " +
+                                "'async.workers' or 'cache.size'.",
+                        optional = true,
+                        defaultValue = "-",
+                        type = {DataType.STRING}
+                ),
         },
         parameterOverloads = {
                 @ParameterOverload(parameterNames = {"absolute.path.to.model", "input.node.names",
@@ -149,11 +338,67 @@ import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getReturnA
                                 "expected to know the shape of the output tensors if he/she wishes to reconstruct " +
                                 "it. The shape and data type information can be retrieved from TensorFlow saved " +
                                 "model signature_def. See the description of this extension for instructions on how " +
-                                "to read signature_def",
+                                "to read signature_def. With the 'output.mode' option set to 'array' or 'tensor', " +
+                                "each output is sent as a single OBJECT attribute named by its output node name.",
                         type = {DataType.INT, DataType.STRING, DataType.DOUBLE, DataType.LONG, DataType.FLOAT,
-                                DataType.BOOL}
+                                DataType.BOOL, DataType.OBJECT}
                 ),
         },
+        systemParameter = {
+                @SystemParameter(
+                        name = "intra.op.parallelism",
+                        description = "Number of threads TensorFlow uses to parallelize an operation, such as a " +
+                                "matrix multiplication. 0 lets TensorFlow use one thread per core. Lower it when " +
+                                "several models share the CPU with the Siddhi threads.",
+                        defaultValue = "0",
+                        possibleParameters = "Any non negative integer"
+                ),
+                @SystemParameter(
+                        name = "inter.op.parallelism",
+                        description = "Number of threads TensorFlow uses to run independent operations in " +
+                                "parallel. 0 lets TensorFlow use one thread per core. TensorFlow shares this thread " +
+                                "pool between the sessions of the process and sizes it by the first session " +
+                                "created.",
+                        defaultValue = "0",
+                        possibleParameters = "Any non negative integer"
+                ),
+                @SystemParameter(
+                        name = "graph.optimization",
+                        description = "Whether the graph is optimized by Grappler before it is run.",
+                        defaultValue = "true",
+                        possibleParameters = {"true", "false"}
+                ),
+                @SystemParameter(
+                        name = "xla.jit",
+                        description = "Whether the graph is compiled with the XLA JIT compiler. Only has an effect " +
+                                "when the TensorFlow native library is built with XLA.",
+                        defaultValue = "false",
+                        possibleParameters = {"true", "false"}
+                ),
+                @SystemParameter(
+                        name = "inference.lanes",
+                        description = "Number of threads of the JVM which run the inferences of all the queries. " +
+                                "The thread delivering the events, or the async worker, waits until its inference " +
+                                "is run on a lane. The waiting inferences of the queries are taken in proportion to " +
+                                "their 'inference.weight' option, so that a query receiving a lot of events does " +
+                                "not starve the others. The number given to the first query started is used until " +
+                                "all the queries are stopped. 0 runs the inferences on the thread delivering the " +
+                                "events.",
+                        defaultValue = "0",
+                        possibleParameters = "Any non negative integer"
+                ),
+                @SystemParameter(
+                        name = "model.loading",
+                        description = "When the model is loaded. 'eager' loads it while the Siddhi app is created. " +
+                                "'parallel' loads it in the background while the Siddhi app is created, so that the " +
+                                "models of several queries load at the same time, and waits for it when the app is " +
+                                "started. 'lazy' loads it with the first event. Unless eager, the query is " +
+                                "validated against the signature defs read from the saved_model.pb or " +
+                                "saved_model.pbtxt file.",
+                        defaultValue = "eager",
+                        possibleParameters = {"eager", "parallel", "lazy"}
+                )
+        },
         examples = {
                 @Example(
                         syntax = "define stream InputStream (x Object, y Object);\n" +
@@ -168,26 +413,277 @@ import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getReturnA
                                 "sends out a Tensor with 10 elements. Our stream processor" +
                                 " flattens the tensor and sends " +
                                 "10 floats each representing the probability of image being 0,1,...,9"
+                ),
+                @Example(
+                        syntax = "define stream InputStream (x String);\n" +
+                                "@info(name = 'query1') \n" +
+                                "from InputStream#tensorFlow:predict('home/Scale', 'inputPoint', 'outputPoint', x, " +
+                                "'batch.mode:true') \n" +
+                                "select outputPoint0, outputPoint1 \n" +
+                                "insert into OutputStream;\n",
+                        description = "This is a query to get inferences from a model which accepts a batch of " +
+                                "inputs. The inputs of all the events arriving together are stacked into a single " +
+                                "Tensor, the model is run once and the outputs are split back to the events."
+                ),
+                @Example(
+                        syntax = "define stream InputStream (x String);\n" +
+                                "@info(name = 'query1') \n" +
+                                "from InputStream#tensorFlow:predict('home/Scale', 'inputPoint', 'outputPoint', x, " +
+                                "'batch.size:64', 'batch.timeout.ms:10') \n" +
+                                "select outputPoint0, outputPoint1 \n" +
+                                "insert into OutputStream;\n",
+                        description = "This query buffers the events and runs a single inference when 64 events " +
+                                "are collected or when 10 milliseconds have passed since the first buffered event, " +
+                                "whichever happens first. The events are released downstream in their arrival order."
+                ),
+                @Example(
+                        syntax = "define stream InputStream (x String);\n" +
+                                "@info(name = 'query1') \n" +
+                                "from InputStream#tensorFlow:predict('home/Scale', 'inputPoint', 'outputPoint', x, " +
+                                "'model.reload.interval.ms:60000') \n" +
+                                "select outputPoint0, outputPoint1 \n" +
+                                "insert into OutputStream;\n",
+                        description = "This query checks 'home/Scale' for a new model version every minute. When " +
+                                "a retrained model is exported to a new version folder such as 'home/Scale/2', it " +
+                                "is loaded and swapped in without restarting the Siddhi app."
+                ),
+                @Example(
+                        syntax = "define stream InputStream (x String);\n" +
+                                "@info(name = 'query1') \n" +
+                                "from InputStream#tensorFlow:predict('home/Scale', 'inputPoint', 'outputPoint', x, " +
+                                "'cache.size:10000', 'cache.ttl.ms:300000') \n" +
+                                "select outputPoint0, outputPoint1 \n" +
+                                "insert into OutputStream;\n",
+                        description = "This query reuses the outputs predicted for the last 10000 distinct values " +
+                                "of x for up to 5 minutes instead of running the model again."
+                ),
+                @Example(
+                        syntax = "define stream InputStream (x String);\n" +
+                                "@info(name = 'query1') \n" +
+                                "from InputStream#tensorFlow:predict('home/MultiHead', 'inputPoint', " +
+                                "'scale_outputPoint', 'shift_outputPoint', x, 'model.tags:heads', " +
+                                "'signature.def.keys:scale,shift') \n" +
+                                "select scale_outputPoint0, shift_outputPoint0 \n" +
+                                "insert into OutputStream;\n",
+                        description = "This query loads the MetaGraph tagged 'heads' and gets the outputs of both " +
+                                "the 'scale' and 'shift' signature defs with a single run of the model. Both use " +
+                                "the key 'outputPoint' for different tensors, so they are prefixed with the " +
+                                "signature def key."
                 )
         }
 )
-public class TensorFlowExtension extends StreamProcessor<State> {
+public class TensorFlowExtension extends StreamProcessor<TensorFlowExtension.PredictionState> {
     private static final Logger logger = Logger.getLogger(TensorFlowExtension.class);
+    private static final String[] DEFAULT_TAGS = {"serve"};
+    private static final String[] DEFAULT_SIGNATURE_DEF_KEYS = {"serving_default"};
+    private String[] tags;
+    private String[] signatureDefKeys;
+    private SessionConfig sessionConfig;
+    private String modelPath;
+    private LoadedModel model;
     private String[] inputVariableNamesArray;
     private String[] outputVariableNamesArray;
     private int noOfInputs;
     private int noOfOutputs;
     private VariableExpressionExecutor[] inputVariableExpressionExecutors;
-    private Session tensorFlowSession;
-    private SignatureDef signatureDef;
     private List<Attribute> attributeList;
+    private boolean batchMode;
+    private boolean bufferEvents;
+    private int batchSize;
+    private long batchTimeout;
+    private long reloadInterval;
+    private int asyncWorkers;
+    private int asyncQueueSize;
+    private PredictionCache predictionCache;
+    private volatile AsyncInferenceStage asyncStage;
+    private volatile InferencePlan inferencePlan;
+    private final Object inferencePlanLock = new Object();
+    private InferenceMetrics metrics;
+    private Scheduler scheduler;
+    private int inferenceLanes;
+    private int inferenceWeight;
+    private InferenceScheduler.Client inferenceClient;
+    private ModelLoading modelLoading;
+    private int warmUpRuns;
+    private int[] warmUpBatchSizes;
+    private OutputMode outputMode;
+    private ImageDecoder[] imageDecoders;
+    private SequenceWindow[] sequenceWindows;
+    private RecurrentState recurrentState;
+    private String[] feedKeys;
+    private String[] fetchKeys;
+    private int[] outputOffsets;
+    private int[] fetchedOutputs;
+    private boolean[] selectedAttributes;
+    private final Queue<BatchTensorBuilder[]> batchTensorBuilderPool = new ConcurrentLinkedQueue<>();
 
     @Override
     public void start() {
+        //the model is released on stop, so acquiring it again when the query is restarted
+        if (model == null) {
+            model = ModelRegistry.acquire(modelPath, tags, signatureDefKeys, sessionConfig, reloadInterval,
+                    modelLoading);
+        }
+        if (modelLoading == ModelLoading.PARALLEL) {
+            //the events are accepted once the model loading in the background is complete
+            model.awaitLoaded();
+        }
+        resolveSelectedOutputs();
+        metrics.start();
+        if (scheduler != null) {
+            //the timer events are created with the final layout of the events of the query
+            scheduler.setStreamEventFactory(new StreamEventFactory(metaStreamEvent));
+        }
+        if (warmUpRuns > 0 && modelLoading != ModelLoading.LAZY) {
+            ModelVersion modelVersion = model.leaseVersion();
+            try {
+                warmUp(getInferencePlan(modelVersion));
+            } finally {
+                modelVersion.release();
+            }
+        }
+        if (asyncWorkers > 0 && asyncStage == null) {
+            asyncStage = new AsyncInferenceStage(siddhiQueryContext.getSiddhiAppContext().getName() + "-" +
+                    siddhiQueryContext.getName(), asyncWorkers, asyncQueueSize,
+                    chunk -> infer(chunk, complexEventPopulater, null), chunk -> nextProcessor.process(chunk));
+        }
+        if (inferenceLanes > 0 && inferenceClient == null) {
+            inferenceClient = InferenceScheduler.register(siddhiQueryContext.getSiddhiAppContext().getName() + "-" +
+                    siddhiQueryContext.getName(), inferenceLanes, inferenceWeight);
+            metrics.trackQueueDepth(inferenceClient);
+        }
+    }
+
+    //the selector is parsed after init, so the attributes used by the query are only known once it starts
+    private void resolveSelectedOutputs() {
+        Set<String> usedAttributeNames = new HashSet<>();
+        for (List<Attribute> data : Arrays.asList(metaStreamEvent.getBeforeWindowData(),
+                metaStreamEvent.getOnAfterWindowData(), metaStreamEvent.getOutputData())) {
+            if (data != null) {
+                for (Attribute attribute : data) {
+                    usedAttributeNames.add(attribute.getName());
+                }
+            }
+        }
+        boolean[] selected = new boolean[attributeList.size()];
+        boolean allSelected = true;
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = usedAttributeNames.contains(attributeList.get(i).getName());
+            allSelected &= selected[i];
+        }
+        String[] outputKeys;
+        if (allSelected) {
+            selectedAttributes = null;
+            fetchedOutputs = null;
+            outputKeys = outputVariableNamesArray;
+        } else {
+            outputOffsets = CoreUtils.getOutputOffsets(attributeList, outputVariableNamesArray);
+            SignatureDef signatureDef = model.getSignatureDef();
+            //the flattened values of an output of a varying size shift the values of the outputs after it, so
+            //those are all fetched when any of their attributes is used
+            int variableFrom = noOfOutputs;
+            for (int i = 0; i < noOfOutputs && outputMode == OutputMode.FLATTEN; i++) {
+                if (!CoreUtils.hasFixedSize(signatureDef.getOutputsMap().get(outputVariableNamesArray[i]))) {
+                    variableFrom = i;
+                    break;
+                }
+            }
+            boolean variableSelected = isAnySelected(selected, outputOffsets[variableFrom], selected.length);
+            List<Integer> outputs = new ArrayList<>(noOfOutputs);
+            for (int i = 0; i < noOfOutputs; i++) {
+                if (i < variableFrom ? isAnySelected(selected, outputOffsets[i], outputOffsets[i + 1]) :
+                        variableSelected) {
+                    outputs.add(i);
+                }
+            }
+            if (outputs.isEmpty()) {
+                //the session needs a node to fetch, so the first output is fetched but not decoded
+                outputs.add(0);
+            }
+            selectedAttributes = selected;
+            fetchedOutputs = outputs.stream().mapToInt(Integer::intValue).toArray();
+            outputKeys = new String[fetchedOutputs.length];
+            for (int i = 0; i < fetchedOutputs.length; i++) {
+                outputKeys[i] = outputVariableNamesArray[fetchedOutputs[i]];
+            }
+        }
+        //the state outputs are always fetched after the outputs of the query
+        int noOfStateOutputs = recurrentState == null ? 0 : recurrentState.size();
+        String[] keys = concat(outputKeys, Arrays.copyOfRange(fetchKeys, fetchKeys.length - noOfStateOutputs,
+                fetchKeys.length));
+        if (Arrays.equals(keys, fetchKeys)) {
+            return;
+        }
+        fetchKeys = keys;
+        synchronized (inferencePlanLock) {
+            if (inferencePlan != null) {
+                ModelVersion modelVersion = model.leaseVersion();
+                try {
+                    inferencePlan = new InferencePlan(modelVersion, feedKeys, fetchKeys);
+                } finally {
+                    modelVersion.release();
+                }
+            }
+        }
+    }
+
+    private static boolean isAnySelected(boolean[] selected, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (selected[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //decodes the values of the return attributes, leaving the attributes not used by the query null
+    private Object[] decodeOutputs(List<Tensor> outputTensors) {
+        if (outputMode == OutputMode.FLATTEN) {
+            return fetchedOutputs == null ? getOutputObjectArray(outputTensors, attributeList.size()) :
+                    getOutputObjectArray(outputTensors, fetchedOutputs, outputOffsets, selectedAttributes);
+        }
+        Object[] values = getOutputValues(outputTensors, outputMode);
+        return fetchedOutputs == null ? values : toSelectedOutputs(values);
+    }
+
+    private Object[][] decodeOutputs(List<Tensor> outputTensors, int batchSize) {
+        if (outputMode == OutputMode.FLATTEN) {
+            return fetchedOutputs == null ? getOutputObjectArrays(outputTensors, batchSize, attributeList.size()) :
+                    getOutputObjectArrays(outputTensors, batchSize, fetchedOutputs, outputOffsets,
+                            selectedAttributes);
+        }
+        Object[][] values = getOutputValueArrays(outputTensors, batchSize, outputMode);
+        if (fetchedOutputs != null) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = toSelectedOutputs(values[i]);
+            }
+        }
+        return values;
+    }
+
+    //other output modes have an attribute for each output, so the values are placed at their output index
+    private Object[] toSelectedOutputs(Object[] values) {
+        Object[] outputs = new Object[attributeList.size()];
+        for (int i = 0; i < fetchedOutputs.length; i++) {
+            if (selectedAttributes[fetchedOutputs[i]]) {
+                outputs[fetchedOutputs[i]] = values[i];
+            }
+        }
+        return outputs;
     }
 
     @Override
     public void stop() {
+        if (asyncStage != null) {
+            asyncStage.stop();
+            asyncStage = null;
+        }
+        if (inferenceClient != null) {
+            InferenceScheduler.unregister(inferenceClient);
+            inferenceClient = null;
+        }
+        metrics.stop();
+        releaseModel();
         //If the model learns with predictions then we need to persist the model and restore.
         //But current TensorFlow Java API r1.4 doesn't support serving of models
     }
@@ -197,45 +693,479 @@ public class TensorFlowExtension extends StreamProcessor<State> {
                            Processor processor,
                            StreamEventCloner streamEventCloner,
                            ComplexEventPopulater complexEventPopulater,
-                           State state) {
+                           PredictionState state) {
+        if (bufferEvents) {
+            processWithBuffer(complexEventChunk, streamEventCloner, complexEventPopulater, state);
+            return;
+        }
+        AsyncInferenceStage stage = asyncStage;
+        if (stage != null) {
+            //the caller clears the chunk once this returns, so the events are handed over in a new chunk
+            stage.submit(new ComplexEventChunk<>(complexEventChunk.getFirst(), complexEventChunk.getLast(),
+                    complexEventChunk.isBatch()));
+            return;
+        }
+        infer(complexEventChunk, complexEventPopulater, state);
+        nextProcessor.process(complexEventChunk);
+    }
+
+    private void infer(ComplexEventChunk<StreamEvent> complexEventChunk,
+                       ComplexEventPopulater complexEventPopulater, PredictionState state) {
+        if (inferenceClient != null) {
+            //waits for a lane shared with the other queries of the JVM
+            inferenceClient.execute(() -> runInference(complexEventChunk, complexEventPopulater, state));
+        } else {
+            runInference(complexEventChunk, complexEventPopulater, state);
+        }
+    }
+
+    private void runInference(ComplexEventChunk<StreamEvent> complexEventChunk,
+                              ComplexEventPopulater complexEventPopulater, PredictionState state) {
+        //the whole chunk uses the same version of the model even if a new one is loaded meanwhile
+        ModelVersion modelVersion = model.leaseVersion();
+        try {
+            InferencePlan plan = getInferencePlan(modelVersion);
+            if (batchMode) {
+                processAsBatch(complexEventChunk, complexEventPopulater, plan, state);
+            } else {
+                processEachEvent(complexEventChunk, complexEventPopulater, plan, state);
+            }
+        } finally {
+            modelVersion.release();
+        }
+    }
+
+    private void processWithBuffer(ComplexEventChunk<StreamEvent> complexEventChunk,
+                                   StreamEventCloner streamEventCloner,
+                                   ComplexEventPopulater complexEventPopulater,
+                                   PredictionState state) {
+        ComplexEventChunk<StreamEvent> outputChunk = new ComplexEventChunk<>(true);
+        //releasing within the lock so that the buffered events are sent downstream in their arrival order
+        synchronized (state) {
+            long currentTime = siddhiQueryContext.getSiddhiAppContext().getTimestampGenerator().currentTime();
+            while (complexEventChunk.hasNext()) {
+                StreamEvent streamEvent = complexEventChunk.next();
+                if (streamEvent.getType() == ComplexEvent.Type.TIMER) {
+                    if (state.flushTime != -1 && currentTime >= state.flushTime) {
+                        flushBuffer(state, outputChunk, complexEventPopulater);
+                    }
+                } else if (streamEvent.getType() == ComplexEvent.Type.CURRENT) {
+                    if (state.bufferSize == 0 && batchTimeout > 0) {
+                        state.flushTime = currentTime + batchTimeout;
+                        scheduler.notifyAt(state.flushTime);
+                    }
+                    state.buffer.add(streamEventCloner.copyStreamEvent(streamEvent));
+                    state.bufferSize++;
+                    if (batchSize > 0 && state.bufferSize >= batchSize) {
+                        flushBuffer(state, outputChunk, complexEventPopulater);
+                    }
+                }
+            }
+            if (outputChunk.getFirst() != null) {
+                nextProcessor.process(outputChunk);
+            }
+        }
+    }
+
+    //the plan is resolved again only when a new version of the model is swapped in. It is resolved under a lock so
+    //that the concurrent first chunks of a lazily loaded model create and warm up a single plan
+    private InferencePlan getInferencePlan(ModelVersion modelVersion) {
+        InferencePlan plan = inferencePlan;
+        if (plan != null && plan.getModelVersion() == modelVersion) {
+            return plan;
+        }
+        synchronized (inferencePlanLock) {
+            plan = inferencePlan;
+            if (plan == null || plan.getModelVersion() != modelVersion) {
+                plan = new InferencePlan(modelVersion, feedKeys, fetchKeys);
+                if (inferencePlan == null && warmUpRuns > 0 && modelLoading == ModelLoading.LAZY) {
+                    warmUp(plan);
+                }
+                inferencePlan = plan;
+            }
+            return plan;
+        }
+    }
+
+    //runs the model on inputs of zeros, so that the first events do not wait for TensorFlow to optimize the graph,
+    //pick the kernels and grow its memory arenas
+    private void warmUp(InferencePlan plan) {
+        long startTime = System.currentTimeMillis();
+        for (int warmUpBatchSize : warmUpBatchSizes) {
+            for (int run = 0; run < warmUpRuns; run++) {
+                List<Tensor> inputTensors = new ArrayList<>(feedKeys.length);
+                try {
+                    Session.Runner tensorFlowRunner = plan.newRunner();
+                    for (int i = 0; i < feedKeys.length; i++) {
+                        Output<?> feed = plan.getFeed(i);
+                        Tensor input = createZerosTensor(feed.dataType(), getWarmUpShape(feed.shape(),
+                                warmUpBatchSize));
+                        if (input == null) {
+                            logger.warn("Skipping the warm up of " + siddhiQueryContext.getName() + " since " +
+                                    "the input " + feedKeys[i] + " of type " + feed.dataType() +
+                                    " can not be created with zeros.");
+                            return;
+                        }
+                        inputTensors.add(TensorTracker.track(input));
+                        tensorFlowRunner = tensorFlowRunner.feed(feed, input);
+                    }
+                    TensorTracker.closeAll(TensorTracker.trackAll((List) tensorFlowRunner.run()));
+                } catch (RuntimeException e) {
+                    logger.warn("Error while warming up the model of " + siddhiQueryContext.getName() + " with " +
+                            "a batch size of " + warmUpBatchSize + ". The model is used without a warm up. " +
+                            e.getMessage(), e);
+                    return;
+                } finally {
+                    TensorTracker.closeAll(inputTensors);
+                }
+            }
+        }
+        logger.debug("Warmed up the model of " + siddhiQueryContext.getName() + " in " +
+                (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    //unknown dimensions are given the batch size for the leading one and 1 for the others
+    private static long[] getWarmUpShape(Shape shape, int batchSize) {
+        if (shape.numDimensions() < 0) {
+            return new long[0];
+        }
+        long[] dimensions = new long[shape.numDimensions()];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = shape.size(i) >= 0 ? shape.size(i) : (i == 0 ? batchSize : 1);
+        }
+        return dimensions;
+    }
+
+    private void flushBuffer(PredictionState state, ComplexEventChunk<StreamEvent> outputChunk,
+                             ComplexEventPopulater complexEventPopulater) {
+        ComplexEventChunk<StreamEvent> bufferedChunk = new ComplexEventChunk<>(state.buffer.getFirst(),
+                state.buffer.getLast(), true);
+        state.buffer.clear();
+        state.bufferSize = 0;
+        state.flushTime = -1;
+        AsyncInferenceStage stage = asyncStage;
+        if (stage != null) {
+            stage.submit(bufferedChunk);
+            return;
+        }
+        infer(bufferedChunk, complexEventPopulater, state);
+        if (bufferedChunk.getFirst() != null) {
+            outputChunk.add(bufferedChunk.getFirst());
+        }
+    }
 
+    private void processEachEvent(ComplexEventChunk<StreamEvent> complexEventChunk,
+                                  ComplexEventPopulater complexEventPopulater, InferencePlan plan,
+                                  PredictionState state) {
         while (complexEventChunk.hasNext()) {
             StreamEvent streamEvent = complexEventChunk.next();
-            Session.Runner tensorFlowRunner = tensorFlowSession.runner();
-            List<Tensor> inputTensors = new LinkedList<>();
-            //getting TensorFlow input values from stream event and feeding the model
+            Object[] inputValues = getInputValues(streamEvent);
+            if (predictionCache != null && populateFromCache(streamEvent, inputValues, plan,
+                    complexEventPopulater)) {
+                continue;
+            }
+            //the runner is created with all the required outputs fetched
+            Session.Runner tensorFlowRunner = plan.newRunner();
+            List<Tensor> inputTensors = new ArrayList<>(noOfInputs);
+            List<Tensor> outputTensors;
+            try {
+                //getting TensorFlow input values from stream event and feeding the model
+                metrics.markIn(Stage.FEED);
+                boolean inputsFed = true;
+                for (int i = 0; i < noOfInputs; i++) {
+                    if (sequenceWindows != null && sequenceWindows[i] != null) {
+                        //fed once the readings are added to the windows
+                        continue;
+                    }
+                    try {
+                        Tensor input;
+                        if (imageDecoders != null && imageDecoders[i] != null) {
+                            input = imageDecoders[i].createTensor(inputValues[i]);
+                        } else {
+                            input = createTensor(inputValues[i]);
+                        }
+                        inputTensors.add(input);
+                        tensorFlowRunner = tensorFlowRunner.feed(plan.getFeed(i), input);
+                    } catch (Throwable e) {
+                        //catching throwable and logging because we don't want to stop the app if one bad input is
+                        //given
+                        logger.error("Error while feeding input " + inputVariableNamesArray[i] + ". " +
+                                e.getMessage());
+                        inputsFed = false;
+                    }
+                }
+                boolean sequencesFull = true;
+                if (sequenceWindows != null) {
+                    //the windows of the key are left as is when the event can not be inferred
+                    if (!inputsFed) {
+                        metrics.eventsDropped(1);
+                    }
+                    sequencesFull = inputsFed && addReadings(state.sequenceWindows, inputValues);
+                    for (int i = 0; i < noOfInputs && sequencesFull; i++) {
+                        if (sequenceWindows[i] != null) {
+                            Tensor input = state.sequenceWindows[i].createTensor();
+                            inputTensors.add(input);
+                            tensorFlowRunner = tensorFlowRunner.feed(plan.getFeed(i), input);
+                        }
+                    }
+                }
+                if (recurrentState != null && sequencesFull) {
+                    for (int i = 0; i < recurrentState.size(); i++) {
+                        Tensor input = state.recurrentState.createTensor(i);
+                        inputTensors.add(input);
+                        tensorFlowRunner = tensorFlowRunner.feed(plan.getFeed(noOfInputs + i), input);
+                    }
+                }
+                metrics.markOut(Stage.FEED);
+                if (!sequencesFull) {
+                    //the event is not inferred until the sequence windows of its key are full, nor when its inputs
+                    //can not be fed
+                    complexEventChunk.remove();
+                    continue;
+                }
+
+                //Running the session and getting the output tensors
+                outputTensors = run(tensorFlowRunner);
+            } catch (RuntimeException e) {
+                metrics.eventsFailed(1);
+                throw e;
+            } finally {
+                //Closing the input tensors to release resources (Tensors must be explicitly closed)
+                TensorTracker.closeAll(inputTensors);
+            }
+            Object[] output;
+            metrics.markIn(Stage.DECODE);
+            try {
+                if (recurrentState != null) {
+                    outputTensors = updateRecurrentState(state, outputTensors);
+                }
+                output = decodeOutputs(outputTensors);
+            } catch (RuntimeException e) {
+                metrics.eventsFailed(1);
+                throw e;
+            } finally {
+                metrics.markOut(Stage.DECODE);
+            }
+            complexEventPopulater.populateComplexEvent(streamEvent, output);
+            metrics.batchProcessed(1);
+            if (predictionCache != null) {
+                predictionCache.put(inputValues, plan.getModelVersion(), output);
+            }
+        }
+    }
+
+    //adds the readings of the event to the sequence windows of its key and returns whether they are all full
+    private boolean addReadings(SequenceWindow[] windows, Object[] readings) {
+        try {
+            return SequenceWindow.addAll(windows, readings);
+        } catch (SiddhiAppRuntimeException e) {
+            logger.error("Error while adding the readings of the sequence inputs. Dropping the event. " +
+                    e.getMessage());
+            metrics.eventsDropped(1);
+            return false;
+        }
+    }
+
+    //feeds the state outputs back to the state of the key and returns the other outputs
+    private List<Tensor> updateRecurrentState(PredictionState state, List<Tensor> outputTensors) {
+        //only the outputs used by the query are fetched before the state outputs
+        int noOfFetchedOutputs = outputTensors.size() - recurrentState.size();
+        List<Tensor> stateOutputTensors = new ArrayList<>(outputTensors.subList(noOfFetchedOutputs,
+                outputTensors.size()));
+        List<Tensor> otherOutputTensors = new ArrayList<>(outputTensors.subList(0, noOfFetchedOutputs));
+        try {
+            for (int i = 0; i < stateOutputTensors.size(); i++) {
+                state.recurrentState.update(i, stateOutputTensors.get(i));
+            }
+        } catch (RuntimeException e) {
+            TensorTracker.closeAll(otherOutputTensors);
+            throw e;
+        } finally {
+            TensorTracker.closeAll(stateOutputTensors);
+        }
+        return otherOutputTensors;
+    }
+
+    private Object[] getInputValues(StreamEvent streamEvent) {
+        Object[] inputValues = new Object[noOfInputs];
+        for (int i = 0; i < noOfInputs; i++) {
+            inputValues[i] = inputVariableExpressionExecutors[i].execute(streamEvent);
+        }
+        return inputValues;
+    }
+
+    private boolean populateFromCache(StreamEvent streamEvent, Object[] inputValues, InferencePlan plan,
+                                      ComplexEventPopulater complexEventPopulater) {
+        Object[] output = predictionCache.get(inputValues, plan.getModelVersion());
+        if (output == null) {
+            metrics.cacheMissed();
+            return false;
+        }
+        metrics.cacheHit();
+        complexEventPopulater.populateComplexEvent(streamEvent, output);
+        return true;
+    }
+
+    private List<Tensor> run(Session.Runner tensorFlowRunner) {
+        metrics.markIn(Stage.RUN);
+        try {
+            return TensorTracker.trackAll((List) tensorFlowRunner.run());
+        } finally {
+            metrics.markOut(Stage.RUN);
+        }
+    }
+
+    private void processAsBatch(ComplexEventChunk<StreamEvent> complexEventChunk,
+                                ComplexEventPopulater complexEventPopulater, InferencePlan plan,
+                                PredictionState state) {
+        BatchTensorBuilder[] batchTensorBuilders = acquireBatchTensorBuilders();
+        try {
+            processAsBatch(complexEventChunk, complexEventPopulater, plan, state, batchTensorBuilders);
+        } finally {
+            for (BatchTensorBuilder batchTensorBuilder : batchTensorBuilders) {
+                batchTensorBuilder.reset();
+            }
+            batchTensorBuilderPool.offer(batchTensorBuilders);
+        }
+    }
+
+    //reusing the builders of earlier chunks so that their staging buffers are not allocated per chunk
+    private BatchTensorBuilder[] acquireBatchTensorBuilders() {
+        BatchTensorBuilder[] batchTensorBuilders = batchTensorBuilderPool.poll();
+        if (batchTensorBuilders == null) {
+            batchTensorBuilders = new BatchTensorBuilder[noOfInputs];
             for (int i = 0; i < noOfInputs; i++) {
+                batchTensorBuilders[i] = new BatchTensorBuilder();
+            }
+        }
+        return batchTensorBuilders;
+    }
+
+    private void processAsBatch(ComplexEventChunk<StreamEvent> complexEventChunk,
+                                ComplexEventPopulater complexEventPopulater, InferencePlan plan,
+                                PredictionState state, BatchTensorBuilder[] batchTensorBuilders) {
+        List<StreamEvent> streamEvents = new ArrayList<>();
+        List<Object[]> streamEventInputs = new ArrayList<>();
+
+        metrics.markIn(Stage.FEED);
+        //decoding the images of all the events in the chunk in parallel before stacking them
+        List<Object[]> chunkInputValues = null;
+        List<Object[]> chunkFeedValues = null;
+        if (imageDecoders != null) {
+            chunkInputValues = new ArrayList<>();
+            while (complexEventChunk.hasNext()) {
+                chunkInputValues.add(getInputValues(complexEventChunk.next()));
+            }
+            complexEventChunk.reset();
+            chunkFeedValues = ImageDecoder.decodeAll(chunkInputValues, imageDecoders);
+        }
+
+        //stacking the TensorFlow input values of all the events in the chunk
+        int eventIndex = 0;
+        while (complexEventChunk.hasNext()) {
+            StreamEvent streamEvent = complexEventChunk.next();
+            Object[] inputValues = chunkInputValues == null ? getInputValues(streamEvent) :
+                    chunkInputValues.get(eventIndex);
+            Object[] feedValues = chunkFeedValues == null ? inputValues : chunkFeedValues.get(eventIndex);
+            eventIndex++;
+            if (predictionCache != null && populateFromCache(streamEvent, inputValues, plan,
+                    complexEventPopulater)) {
+                continue;
+            }
+            //the other inputs are added first so that the windows are left as is when one of them is invalid
+            int added = 0;
+            boolean fed = true;
+            for (int i = 0; i < noOfInputs && fed; i++) {
+                if (sequenceWindows != null && sequenceWindows[i] != null) {
+                    continue;
+                }
                 try {
-                    Tensor input = createTensor((String) inputVariableExpressionExecutors[i].execute(streamEvent));
-                    inputTensors.add(input);
-                    tensorFlowRunner = tensorFlowRunner.feed(
-                            signatureDef.getInputsMap().get(inputVariableNamesArray[i]).getName(), input);
+                    if (feedValues[i] instanceof BufferedImage) {
+                        batchTensorBuilders[i].addImage((BufferedImage) feedValues[i], imageDecoders[i]);
+                    } else if (feedValues[i] instanceof RuntimeException) {
+                        //the image could not be decoded
+                        throw (RuntimeException) feedValues[i];
+                    } else {
+                        batchTensorBuilders[i].add(feedValues[i]);
+                    }
+                    added = i + 1;
                 } catch (Throwable e) {
-                    //catching throwable and logging because we don't want to stop the app if one bad input is given
-                    logger.error("Error while feeding input " + inputVariableNamesArray[i] + ". " + e.getMessage());
+                    //catching throwable and dropping the event because one bad input should not fail the batch
+                    logger.error("Error while feeding input " + inputVariableNamesArray[i] + ". Dropping the " +
+                            "event. " + e.getMessage());
+                    metrics.eventsDropped(1);
+                    fed = false;
                 }
             }
-
-            //fetching all the required outputs
-            for (int i = 0; i < noOfOutputs; i++) {
-                tensorFlowRunner = tensorFlowRunner.fetch(
-                        signatureDef.getOutputsMap().get(outputVariableNamesArray[i]).getName());
+            if (fed && sequenceWindows != null) {
+                //the event is also not inferred until the sequence windows of its key are full
+                fed = addReadings(state.sequenceWindows, feedValues);
+                for (int i = 0; i < noOfInputs && fed; i++) {
+                    if (sequenceWindows[i] != null) {
+                        batchTensorBuilders[i].addSequence(state.sequenceWindows[i]);
+                    }
+                }
             }
+            if (fed) {
+                streamEvents.add(streamEvent);
+                streamEventInputs.add(inputValues);
+            } else {
+                for (int i = 0; i < added; i++) {
+                    if (sequenceWindows == null || sequenceWindows[i] == null) {
+                        batchTensorBuilders[i].removeLast();
+                    }
+                }
+                complexEventChunk.remove();
+            }
+        }
+        if (streamEvents.isEmpty()) {
+            metrics.markOut(Stage.FEED);
+            return;
+        }
 
-            //Running the session and getting the output tensors
-            List outputTensors = tensorFlowRunner.run();
+        Session.Runner tensorFlowRunner = plan.newRunner();
+        List<Tensor> inputTensors = new ArrayList<>(noOfInputs);
+        List<Tensor> outputTensors;
+        Object[][] outputs;
+        try {
+            try {
+                for (int i = 0; i < noOfInputs; i++) {
+                    Tensor input = batchTensorBuilders[i].build();
+                    inputTensors.add(input);
+                    tensorFlowRunner = tensorFlowRunner.feed(plan.getFeed(i), input);
+                }
+            } finally {
+                metrics.markOut(Stage.FEED);
+            }
+            outputTensors = run(tensorFlowRunner);
+        } catch (RuntimeException e) {
+            metrics.eventsFailed(streamEvents.size());
+            throw e;
+        } finally {
+            TensorTracker.closeAll(inputTensors);
+        }
 
-            //Closing the input tensors to release resources (Tensors must be explicitly closed)
-            for (Tensor t : inputTensors) {
-                t.close();
+        //splitting the output tensors back into the events
+        metrics.markIn(Stage.DECODE);
+        try {
+            outputs = decodeOutputs(outputTensors, streamEvents.size());
+        } catch (RuntimeException e) {
+            metrics.eventsFailed(streamEvents.size());
+            throw e;
+        } finally {
+            metrics.markOut(Stage.DECODE);
+        }
+        metrics.batchProcessed(streamEvents.size());
+        for (int i = 0; i < outputs.length; i++) {
+            complexEventPopulater.populateComplexEvent(streamEvents.get(i), outputs[i]);
+            if (predictionCache != null) {
+                predictionCache.put(streamEventInputs.get(i), plan.getModelVersion(), outputs[i]);
             }
-            complexEventPopulater.populateComplexEvent(streamEvent, getOutputObjectArray(outputTensors));
         }
-        nextProcessor.process(complexEventChunk);
     }
 
     @Override
-    protected StateFactory<State> init(MetaStreamEvent metaStreamEvent, AbstractDefinition abstractDefinition,
+    protected StateFactory<PredictionState> init(MetaStreamEvent metaStreamEvent, AbstractDefinition abstractDefinition,
                                        ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                        StreamEventClonerHolder streamEventClonerHolder, boolean b, boolean b1,
                                        SiddhiQueryContext siddhiQueryContext) {
@@ -250,7 +1180,6 @@ public class TensorFlowExtension extends StreamProcessor<State> {
         }
 
         //expressionExecutors[0] --> absolute path to model
-        String modelPath;
         if (!(attributeExpressionExecutors[0] instanceof ConstantExpressionExecutor)) {
             throw new SiddhiAppCreationException("1st query parameter is the absolute path to model which has to be " +
                     "constant but found " + this.attributeExpressionExecutors[0].getClass().getCanonicalName());
@@ -262,31 +1191,185 @@ public class TensorFlowExtension extends StreamProcessor<State> {
                     "be of type String but found " + attributeExpressionExecutors[0].getReturnType());
         }
 
-        //loading the saved model
-        final String servingTag = "serve";
-        SavedModelBundle tensorFlowSavedModel = SavedModelBundle.load(modelPath, servingTag);
-        tensorFlowSession = tensorFlowSavedModel.session();
+        //extracting the optional 'key:value' settings given after the attributes
+        QueryOptions options = QueryOptions.extractOptions(attributeExpressionExecutors, SUPPORTED_OPTIONS);
+        batchMode = options.getBoolean(OPTION_BATCH_MODE, false);
+        batchSize = options.getInt(OPTION_BATCH_SIZE, -1);
+        batchTimeout = options.getLong(OPTION_BATCH_TIMEOUT, -1);
+        if (options.contains(OPTION_BATCH_SIZE) && batchSize <= 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_BATCH_SIZE + "' should be greater than 0 " +
+                    "but found " + batchSize);
+        }
+        if (options.contains(OPTION_BATCH_TIMEOUT) && batchTimeout <= 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_BATCH_TIMEOUT + "' should be greater " +
+                    "than 0 but found " + batchTimeout);
+        }
+        reloadInterval = options.getLong(OPTION_MODEL_RELOAD_INTERVAL, -1);
+        if (options.contains(OPTION_MODEL_RELOAD_INTERVAL) && reloadInterval <= 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_MODEL_RELOAD_INTERVAL + "' should be " +
+                    "greater than 0 but found " + reloadInterval);
+        }
+        asyncWorkers = options.getInt(OPTION_ASYNC_WORKERS, -1);
+        asyncQueueSize = options.getInt(OPTION_ASYNC_QUEUE_SIZE, DEFAULT_ASYNC_QUEUE_SIZE);
+        if (options.contains(OPTION_ASYNC_WORKERS) && asyncWorkers <= 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_ASYNC_WORKERS + "' should be greater " +
+                    "than 0 but found " + asyncWorkers);
+        }
+        if (options.contains(OPTION_ASYNC_QUEUE_SIZE)) {
+            if (!options.contains(OPTION_ASYNC_WORKERS)) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_ASYNC_QUEUE_SIZE + "' can only be " +
+                        "used along with '" + OPTION_ASYNC_WORKERS + "'.");
+            }
+            if (asyncQueueSize <= 0) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_ASYNC_QUEUE_SIZE + "' should be " +
+                        "greater than 0 but found " + asyncQueueSize);
+            }
+        }
+        tags = options.getStringArray(OPTION_MODEL_TAGS, DEFAULT_TAGS);
+        signatureDefKeys = options.getStringArray(OPTION_SIGNATURE_DEF_KEYS, DEFAULT_SIGNATURE_DEF_KEYS);
+        sessionConfig = createSessionConfig(options.withDefaults(configReader, SESSION_OPTIONS));
+        inferenceLanes = options.withDefaults(configReader, Collections.singletonList(INFERENCE_LANES))
+                .getInt(INFERENCE_LANES, 0);
+        modelLoading = getModelLoading(options.withDefaults(configReader,
+                Collections.singletonList(OPTION_MODEL_LOADING)).getString(OPTION_MODEL_LOADING, "eager"));
+        outputMode = getOutputMode(options.getString(OPTION_OUTPUT_MODE, "flatten"));
+        warmUpRuns = options.getInt(OPTION_WARMUP_RUNS, 0);
+        warmUpBatchSizes = options.getIntArray(OPTION_WARMUP_BATCH_SIZES, new int[]{batchSize > 0 ? batchSize : 1});
+        if (options.contains(OPTION_WARMUP_RUNS) && warmUpRuns <= 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_WARMUP_RUNS + "' should be greater than 0 " +
+                    "but found " + warmUpRuns);
+        }
+        if (options.contains(OPTION_WARMUP_BATCH_SIZES)) {
+            if (!options.contains(OPTION_WARMUP_RUNS)) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_WARMUP_BATCH_SIZES + "' can only be " +
+                        "used along with '" + OPTION_WARMUP_RUNS + "'.");
+            }
+            for (int warmUpBatchSize : warmUpBatchSizes) {
+                if (warmUpBatchSize <= 0) {
+                    throw new SiddhiAppCreationException("The batch sizes of the option '" +
+                            OPTION_WARMUP_BATCH_SIZES + "' should be greater than 0 but found " + warmUpBatchSize);
+                }
+            }
+        }
+        inferenceWeight = options.getInt(OPTION_INFERENCE_WEIGHT, 1);
+        if (inferenceLanes < 0) {
+            throw new SiddhiAppCreationException("The system parameter '" + INFERENCE_LANES + "' should not be " +
+                    "negative but found " + inferenceLanes);
+        }
+        if (options.contains(OPTION_INFERENCE_WEIGHT)) {
+            if (inferenceLanes == 0) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_INFERENCE_WEIGHT + "' can only be " +
+                        "used when the system parameter '" + INFERENCE_LANES + "' is set.");
+            } else if (inferenceWeight <= 0) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_INFERENCE_WEIGHT + "' should be " +
+                        "greater than 0 but found " + inferenceWeight);
+            }
+        }
+        int cacheSize = options.getInt(OPTION_CACHE_SIZE, -1);
+        long cacheTimeToLive = options.getLong(OPTION_CACHE_TTL, -1);
+        if (options.contains(OPTION_CACHE_SIZE) && cacheSize <= 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_CACHE_SIZE + "' should be greater than 0 " +
+                    "but found " + cacheSize);
+        }
+        if (options.contains(OPTION_CACHE_TTL)) {
+            if (!options.contains(OPTION_CACHE_SIZE)) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_CACHE_TTL + "' can only be used " +
+                        "along with '" + OPTION_CACHE_SIZE + "'.");
+            }
+            if (cacheTimeToLive <= 0) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_CACHE_TTL + "' should be greater " +
+                        "than 0 but found " + cacheTimeToLive);
+            }
+        }
+        if (cacheSize > 0) {
+            predictionCache = new PredictionCache(cacheSize, cacheTimeToLive,
+                    siddhiQueryContext.getSiddhiAppContext().getTimestampGenerator()::currentTime);
+        }
+        bufferEvents = batchSize > 0 || batchTimeout > 0;
+        if (bufferEvents) {
+            if (options.contains(OPTION_BATCH_MODE) && !batchMode) {
+                throw new SiddhiAppCreationException("The options '" + OPTION_BATCH_SIZE + "' and '" +
+                        OPTION_BATCH_TIMEOUT + "' can not be used when '" + OPTION_BATCH_MODE + "' is false.");
+            }
+            batchMode = true;
+        }
+        if (batchTimeout > 0) {
+            //the timer events are sent straight to this processor, which handles them under the lock of the state
+            //of the key, and the scheduler is started and stopped along with the Siddhi app
+            scheduler = SchedulerParser.parse(this::process, siddhiQueryContext);
+            scheduler.init(null, siddhiQueryContext.getName());
+        }
+
+        metrics = new InferenceMetrics(siddhiQueryContext);
 
-        //Loading signatureDef
-        final String defaultServingSignatureDefKey = "serving_default";
+        //acquiring the saved model shared by all the queries using it
+        model = ModelRegistry.acquire(modelPath, tags, signatureDefKeys, sessionConfig, reloadInterval,
+                modelLoading);
         try {
-            signatureDef =
-                    MetaGraphDef.parseFrom(tensorFlowSavedModel.metaGraphDef())
-                            .getSignatureDefOrThrow(defaultServingSignatureDefKey);
-        } catch (InvalidProtocolBufferException e) {
-            throw new SiddhiAppCreationException("Error while reading signature def." + e.getMessage(), e);
+            initModelParameters(options);
+        } catch (RuntimeException e) {
+            releaseModel();
+            throw e;
+        }
+        if (bufferEvents || sequenceWindows != null || recurrentState != null) {
+            return () -> new PredictionState(streamEventClonerHolder);
+        }
+        return null;
+    }
+
+    private static ModelLoading getModelLoading(String value) {
+        for (ModelLoading loading : ModelLoading.values()) {
+            if (loading.name().equalsIgnoreCase(value)) {
+                return loading;
+            }
+        }
+        throw new SiddhiAppCreationException("The option '" + OPTION_MODEL_LOADING + "' should be one of eager, " +
+                "parallel or lazy but found '" + value + "'.");
+    }
+
+    private static OutputMode getOutputMode(String value) {
+        for (OutputMode mode : OutputMode.values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new SiddhiAppCreationException("The option '" + OPTION_OUTPUT_MODE + "' should be one of flatten, " +
+                "array or tensor but found '" + value + "'.");
+    }
+
+    //query options take precedence over the system parameters of the extension
+    private static SessionConfig createSessionConfig(QueryOptions sessionOptions) {
+        int intraOpParallelism = sessionOptions.getInt(OPTION_INTRA_OP_PARALLELISM, 0);
+        int interOpParallelism = sessionOptions.getInt(OPTION_INTER_OP_PARALLELISM, 0);
+        if (intraOpParallelism < 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_INTRA_OP_PARALLELISM + "' should not be " +
+                    "negative but found " + intraOpParallelism);
+        }
+        if (interOpParallelism < 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_INTER_OP_PARALLELISM + "' should not be " +
+                    "negative but found " + interOpParallelism);
         }
+        return new SessionConfig(intraOpParallelism, interOpParallelism,
+                sessionOptions.getBoolean(OPTION_GRAPH_OPTIMIZATION, true),
+                sessionOptions.getBoolean(OPTION_XLA_JIT, false));
+    }
+
+    private void initModelParameters(QueryOptions options) {
+        SignatureDef signatureDef = model.getSignatureDef();
 
-        noOfInputs = signatureDef.getInputsCount();
-        noOfOutputs = signatureDef.getOutputsCount();
+        //the state inputs and the outputs fed back to them are not given in the query
+        String[] recurrentStatePairs = options.getStringArray(OPTION_RECURRENT_STATE, new String[0]);
+        noOfInputs = signatureDef.getInputsCount() - recurrentStatePairs.length;
+        noOfOutputs = signatureDef.getOutputsCount() - recurrentStatePairs.length;
 
         //Checking if the specified number of inputs are given
         final int noOfQueryParams = 1 + 2 * noOfInputs + noOfOutputs;
         //1 for path param. noOfInputs + noOfPOutputs for names of the nodes. Another noOfInputs for attributes
-        if (attributeExpressionLength != noOfQueryParams) {
+        if (attributeExpressionLength - options.size() != noOfQueryParams) {
             String message = "Invalid number of query parameters. Number of inputs and number of outputs are " +
                     "specified as " + noOfInputs + " and " + noOfOutputs + " respectively. So the total number of " +
-                    "query parameters should be " + noOfQueryParams + " but " + attributeExpressionLength + " given.";
+                    "query parameters should be " + noOfQueryParams + " but " +
+                    (attributeExpressionLength - options.size()) + " given.";
             logger.error(siddhiQueryContext.getSiddhiAppContext().getName() + message);
             throw new SiddhiAppCreationException(message);
         }
@@ -347,15 +1430,199 @@ public class TensorFlowExtension extends StreamProcessor<State> {
                         "check the output node names.");
             }
         }
+        imageDecoders = createImageDecoders(options, signatureDef);
+        sequenceWindows = createSequenceWindows(options, signatureDef);
+        recurrentState = createRecurrentState(recurrentStatePairs, signatureDef);
+
+        //Checking whether the signature def supports stacking the inputs along a leading batch dimension
+        if (batchMode) {
+            for (String inputNodeName : inputVariableNamesArray) {
+                if (!hasBatchDimension(signatureDef.getInputsMap().get(inputNodeName))) {
+                    throw new SiddhiAppCreationException("Batch mode requires a variable leading dimension but " +
+                            "input " + inputNodeName + " has a fixed shape in the signature def.");
+                }
+            }
+            for (String outputNodeName : outputVariableNamesArray) {
+                if (!hasBatchDimension(signatureDef.getOutputsMap().get(outputNodeName))) {
+                    throw new SiddhiAppCreationException("Batch mode requires a variable leading dimension but " +
+                            "output " + outputNodeName + " has a fixed shape in the signature def.");
+                }
+            }
+        }
+
         int inputValuesStartIndex = 1 + noOfInputs + noOfOutputs;
         //1 for path param. noOfInputs + noOfPOutputs for names of the nodes.
 
         //Extracting and validating variable expression executors
         inputVariableExpressionExecutors = CoreUtils.extractAndValidateTensorFlowInputs(attributeExpressionExecutors,
                 inputValuesStartIndex, noOfInputs);
-        attributeList = getReturnAttributeList(signatureDef, noOfOutputs, tensorFlowSavedModel,
-                outputVariableNamesArray);
-        return null;
+        if (outputMode != OutputMode.FLATTEN) {
+            attributeList = new ArrayList<>(noOfOutputs);
+            for (String outputNodeName : outputVariableNamesArray) {
+                attributeList.add(new Attribute(outputNodeName, Attribute.Type.OBJECT));
+            }
+        } else if (modelLoading != ModelLoading.EAGER) {
+            attributeList = getReturnAttributeList(signatureDef, noOfOutputs, outputVariableNamesArray);
+        } else {
+            attributeList = getReturnAttributeList(signatureDef, noOfOutputs, model.getSavedModelBundle(),
+                    outputVariableNamesArray);
+        }
+        if (modelLoading != ModelLoading.EAGER) {
+            //the plan is created by the first inference once the model is loaded
+            return;
+        }
+
+        //resolving the tensors to feed and fetch once instead of looking them up for each event
+        ModelVersion modelVersion = model.leaseVersion();
+        try {
+            inferencePlan = new InferencePlan(modelVersion, feedKeys, fetchKeys);
+        } finally {
+            modelVersion.release();
+        }
+    }
+
+    //decoders by input index, or null when no input is fed with images
+    private ImageDecoder[] createImageDecoders(QueryOptions options, SignatureDef signatureDef) {
+        if (!options.contains(OPTION_IMAGE_INPUTS)) {
+            for (String option : new String[]{OPTION_IMAGE_SIZE, OPTION_IMAGE_COLOR, OPTION_IMAGE_NORMALIZE}) {
+                if (options.contains(option)) {
+                    throw new SiddhiAppCreationException("The option '" + option + "' can only be used along " +
+                            "with '" + OPTION_IMAGE_INPUTS + "'.");
+                }
+            }
+            return null;
+        }
+        int[] size = options.getIntArray(OPTION_IMAGE_SIZE, null);
+        if (size != null && (size.length != 2 || size[0] <= 0 || size[1] <= 0)) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_IMAGE_SIZE + "' should be given as " +
+                    "'height,width' greater than 0 but found " + Arrays.toString(size));
+        }
+        String color = options.getString(OPTION_IMAGE_COLOR, null);
+        int channels;
+        if (color == null) {
+            channels = 0;
+        } else if ("gray".equalsIgnoreCase(color)) {
+            channels = 1;
+        } else if ("rgb".equalsIgnoreCase(color)) {
+            channels = 3;
+        } else {
+            throw new SiddhiAppCreationException("The option '" + OPTION_IMAGE_COLOR + "' should be either gray " +
+                    "or rgb but found " + color);
+        }
+        boolean normalize = options.getBoolean(OPTION_IMAGE_NORMALIZE, true);
+
+        ImageDecoder[] decoders = new ImageDecoder[noOfInputs];
+        for (String imageInputName : options.getStringArray(OPTION_IMAGE_INPUTS, new String[0])) {
+            int index = Arrays.asList(inputVariableNamesArray).indexOf(imageInputName);
+            if (index < 0) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_IMAGE_INPUTS + "' has " +
+                        imageInputName + " which is not one of the input node names of the query.");
+            }
+            decoders[index] = ImageDecoder.create(imageInputName, signatureDef.getInputsMap().get(imageInputName),
+                    size, channels, normalize);
+        }
+        return decoders;
+    }
+
+    //empty windows by input index to create the windows of each key from, or null when there are no sequence inputs
+    private SequenceWindow[] createSequenceWindows(QueryOptions options, SignatureDef signatureDef) {
+        if (!options.contains(OPTION_SEQUENCE_INPUTS)) {
+            if (options.contains(OPTION_SEQUENCE_LENGTH)) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_SEQUENCE_LENGTH + "' can only be used " +
+                        "along with '" + OPTION_SEQUENCE_INPUTS + "'.");
+            }
+            return null;
+        }
+        //the windows are updated in the arrival order of the events
+        if (asyncWorkers > 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_SEQUENCE_INPUTS + "' can not be used " +
+                    "along with '" + OPTION_ASYNC_WORKERS + "'.");
+        }
+        //the outputs depend on the earlier events of the key as well
+        if (predictionCache != null) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_SEQUENCE_INPUTS + "' can not be used " +
+                    "along with '" + OPTION_CACHE_SIZE + "'.");
+        }
+        int length = options.getInt(OPTION_SEQUENCE_LENGTH, 0);
+        if (options.contains(OPTION_SEQUENCE_LENGTH) && length <= 0) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_SEQUENCE_LENGTH + "' should be greater " +
+                    "than 0 but found " + length);
+        }
+
+        SequenceWindow[] windows = new SequenceWindow[noOfInputs];
+        for (String sequenceInputName : options.getStringArray(OPTION_SEQUENCE_INPUTS, new String[0])) {
+            int index = Arrays.asList(inputVariableNamesArray).indexOf(sequenceInputName);
+            if (index < 0) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_SEQUENCE_INPUTS + "' has " +
+                        sequenceInputName + " which is not one of the input node names of the query.");
+            }
+            if (imageDecoders != null && imageDecoders[index] != null) {
+                throw new SiddhiAppCreationException("Input " + sequenceInputName + " can not be given in both '" +
+                        OPTION_IMAGE_INPUTS + "' and '" + OPTION_SEQUENCE_INPUTS + "'.");
+            }
+            windows[index] = SequenceWindow.create(sequenceInputName,
+                    signatureDef.getInputsMap().get(sequenceInputName), length);
+        }
+        return windows;
+    }
+
+    //zero state to create the state of each key from, or null when there are no state inputs
+    private RecurrentState createRecurrentState(String[] recurrentStatePairs, SignatureDef signatureDef) {
+        if (recurrentStatePairs.length == 0) {
+            feedKeys = inputVariableNamesArray;
+            fetchKeys = outputVariableNamesArray;
+            return null;
+        }
+        //each event is a step of the sequence of its key, so the events can not be stacked or inferred out of order
+        if (batchMode || asyncWorkers > 0 || predictionCache != null) {
+            throw new SiddhiAppCreationException("The option '" + OPTION_RECURRENT_STATE + "' can not be used " +
+                    "along with batch mode, '" + OPTION_ASYNC_WORKERS + "' or '" + OPTION_CACHE_SIZE + "'.");
+        }
+        List<String> queryNodeNames = new ArrayList<>(Arrays.asList(inputVariableNamesArray));
+        queryNodeNames.addAll(Arrays.asList(outputVariableNamesArray));
+        String[] stateInputNames = new String[recurrentStatePairs.length];
+        String[] stateOutputNames = new String[recurrentStatePairs.length];
+        TensorInfo[] stateInputInfos = new TensorInfo[recurrentStatePairs.length];
+        TensorInfo[] stateOutputInfos = new TensorInfo[recurrentStatePairs.length];
+        for (int i = 0; i < recurrentStatePairs.length; i++) {
+            String[] pair = recurrentStatePairs[i].split("=");
+            if (pair.length != 2) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_RECURRENT_STATE + "' should be given " +
+                        "as comma separated '<output node name>=<input node name>' pairs but found " +
+                        recurrentStatePairs[i]);
+            }
+            stateOutputNames[i] = pair[0].trim();
+            stateInputNames[i] = pair[1].trim();
+            stateOutputInfos[i] = signatureDef.getOutputsMap().get(stateOutputNames[i]);
+            stateInputInfos[i] = signatureDef.getInputsMap().get(stateInputNames[i]);
+            if (stateOutputInfos[i] == null || stateInputInfos[i] == null) {
+                throw new SiddhiAppCreationException("The option '" + OPTION_RECURRENT_STATE + "' has " +
+                        recurrentStatePairs[i] + " but " + (stateOutputInfos[i] == null ? stateOutputNames[i] +
+                        " is not an output node" : stateInputNames[i] + " is not an input node") + " in the " +
+                        "signature def.");
+            }
+            if (queryNodeNames.contains(stateOutputNames[i]) || queryNodeNames.contains(stateInputNames[i])) {
+                throw new SiddhiAppCreationException("The nodes of the option '" + OPTION_RECURRENT_STATE + "' " +
+                        "are fed from the state of the key and should not be given in the query but found " +
+                        recurrentStatePairs[i]);
+            }
+        }
+        feedKeys = concat(inputVariableNamesArray, stateInputNames);
+        fetchKeys = concat(outputVariableNamesArray, stateOutputNames);
+        return RecurrentState.create(stateInputNames, stateInputInfos, stateOutputInfos);
+    }
+
+    private static String[] concat(String[] first, String[] second) {
+        String[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private void releaseModel() {
+        if (model != null) {
+            ModelRegistry.release(model);
+            model = null;
+        }
     }
 
     @Override
@@ -367,4 +1634,86 @@ public class TensorFlowExtension extends StreamProcessor<State> {
     public ProcessingMode getProcessingMode() {
         return ProcessingMode.BATCH;
     }
+
+    /**
+     * State of the TensorFlow SP holding the events buffered for the next inference
+     */
+    class PredictionState extends State {
+        private final SnapshotableStreamEventQueue buffer;
+        private int bufferSize;
+        private long flushTime = -1;
+        private final SequenceWindow[] sequenceWindows;
+        private final RecurrentState recurrentState;
+
+        PredictionState(StreamEventClonerHolder streamEventClonerHolder) {
+            buffer = new SnapshotableStreamEventQueue(streamEventClonerHolder);
+            recurrentState = TensorFlowExtension.this.recurrentState == null ? null :
+                    TensorFlowExtension.this.recurrentState.newState();
+            if (TensorFlowExtension.this.sequenceWindows != null) {
+                sequenceWindows = new SequenceWindow[noOfInputs];
+                for (int i = 0; i < noOfInputs; i++) {
+                    if (TensorFlowExtension.this.sequenceWindows[i] != null) {
+                        sequenceWindows[i] = TensorFlowExtension.this.sequenceWindows[i].newWindow();
+                    }
+                }
+            } else {
+                sequenceWindows = null;
+            }
+        }
+
+        @Override
+        public boolean canDestroy() {
+            if (recurrentState != null && recurrentState.isUpdated()) {
+                return false;
+            }
+            if (sequenceWindows != null) {
+                for (SequenceWindow sequenceWindow : sequenceWindows) {
+                    if (sequenceWindow != null && !sequenceWindow.isEmpty()) {
+                        return false;
+                    }
+                }
+            }
+            return bufferSize == 0;
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            Map<String, Object> state = new HashMap<>();
+            state.put("Buffer", buffer.getSnapshot());
+            state.put("BufferSize", bufferSize);
+            state.put("FlushTime", flushTime);
+            if (sequenceWindows != null) {
+                Object[][] sequenceWindowSnapshots = new Object[sequenceWindows.length][];
+                for (int i = 0; i < sequenceWindows.length; i++) {
+                    if (sequenceWindows[i] != null) {
+                        sequenceWindowSnapshots[i] = sequenceWindows[i].snapshot();
+                    }
+                }
+                state.put("SequenceWindows", sequenceWindowSnapshots);
+            }
+            if (recurrentState != null) {
+                state.put("RecurrentState", recurrentState.snapshot());
+            }
+            return state;
+        }
+
+        @Override
+        public void restore(Map<String, Object> state) {
+            buffer.restore((SnapshotStateList) state.get("Buffer"));
+            bufferSize = (Integer) state.get("BufferSize");
+            flushTime = (Long) state.get("FlushTime");
+            Object[][] sequenceWindowSnapshots = (Object[][]) state.get("SequenceWindows");
+            if (sequenceWindows != null && sequenceWindowSnapshots != null) {
+                for (int i = 0; i < sequenceWindows.length; i++) {
+                    if (sequenceWindows[i] != null && sequenceWindowSnapshots[i] != null) {
+                        sequenceWindows[i].restore(sequenceWindowSnapshots[i]);
+                    }
+                }
+            }
+            byte[][] recurrentStateSnapshot = (byte[][]) state.get("RecurrentState");
+            if (recurrentState != null && recurrentStateSnapshot != null) {
+                recurrentState.restore(recurrentStateSnapshot);
+            }
+        }
+    }
 }
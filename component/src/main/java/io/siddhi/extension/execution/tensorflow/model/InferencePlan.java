@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.model;
+
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import org.tensorflow.Graph;
+import org.tensorflow.Operation;
+import org.tensorflow.Output;
+import org.tensorflow.Session;
+import org.tensorflow.framework.SignatureDef;
+import org.tensorflow.framework.TensorInfo;
+
+import java.util.Map;
+
+/**
+ * The graph outputs to feed and fetch for the signature def keys of a query, resolved once for a model version. The
+ * plan is immutable, so it is shared by all the threads running inferences of the query.
+ */
+public class InferencePlan {
+    private final ModelVersion modelVersion;
+    private final Output<?>[] feeds;
+    private final Output<?>[] fetches;
+
+    public InferencePlan(ModelVersion modelVersion, String[] inputKeys, String[] outputKeys) {
+        this.modelVersion = modelVersion;
+        SignatureDef signatureDef = modelVersion.getSignatureDef();
+        Graph graph = modelVersion.getSavedModelBundle().graph();
+        this.feeds = resolve(graph, signatureDef.getInputsMap(), inputKeys);
+        this.fetches = resolve(graph, signatureDef.getOutputsMap(), outputKeys);
+    }
+
+    private static Output<?>[] resolve(Graph graph, Map<String, TensorInfo> tensorInfoMap, String[] keys) {
+        Output<?>[] outputs = new Output<?>[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            //tensor names are of the form 'operation:index', an operation with a single output may omit the index
+            String tensorName = tensorInfoMap.get(keys[i]).getName();
+            int separatorIndex = tensorName.lastIndexOf(':');
+            String operationName = separatorIndex < 0 ? tensorName : tensorName.substring(0, separatorIndex);
+            int index = separatorIndex < 0 ? 0 : Integer.parseInt(tensorName.substring(separatorIndex + 1));
+            Operation operation = graph.operation(operationName);
+            if (operation == null) {
+                throw new SiddhiAppCreationException("The tensor " + tensorName + " of " + keys[i] + " is not " +
+                        "present in the graph of the model.");
+            }
+            outputs[i] = operation.output(index);
+        }
+        return outputs;
+    }
+
+    public ModelVersion getModelVersion() {
+        return modelVersion;
+    }
+
+    //a runner fetching all the outputs, a runner can only be run once so a new one is needed for each inference
+    public Session.Runner newRunner() {
+        Session.Runner runner = modelVersion.getSession().runner();
+        for (Output<?> fetch : fetches) {
+            runner.fetch(fetch);
+        }
+        return runner;
+    }
+
+    public Output<?> getFeed(int index) {
+        return feeds[index];
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.model;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.TextFormat;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.apache.log4j.Logger;
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Session;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.framework.SavedModel;
+import org.tensorflow.framework.SignatureDef;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A model shared by all the queries using it. The model directory either holds a SavedModel or, as laid out by
+ * TensorFlow Serving, numeric version sub directories each holding a SavedModel where the largest version is used.
+ * When watched, newer versions are loaded in the background and swapped in if their signature def is compatible.
+ * The session is thread safe, so the event chunks of all the queries and partition keys run on it concurrently.
+ */
+public class LoadedModel {
+    private static final Logger logger = Logger.getLogger(LoadedModel.class);
+    private static final String[] SAVED_MODEL_FILES = {"saved_model.pb", "saved_model.pbtxt"};
+    private static final String VARIABLES_DIRECTORY = "variables";
+
+    private final String key;
+    private final String modelPath;
+    private final String[] tags;
+    private final String[] signatureDefKeys;
+    private final SessionConfig sessionConfig;
+    private final AtomicReference<ModelVersion> currentVersion = new AtomicReference<>();
+    private volatile String lastCheckedVersion;
+    private ScheduledFuture<?> watcher;
+    private long watchInterval;
+    private boolean closed;
+    //guarded by the registry
+    int referenceCount;
+
+    LoadedModel(String key, String modelPath, String[] tags, String[] signatureDefKeys,
+                SessionConfig sessionConfig) {
+        this.key = key;
+        this.modelPath = modelPath;
+        this.tags = tags;
+        this.signatureDefKeys = signatureDefKeys;
+        this.sessionConfig = sessionConfig;
+    }
+
+    //loads the model once, the queries acquiring it at the same time wait for the first one
+    synchronized void load() {
+        if (currentVersion.get() != null) {
+            return;
+        }
+        if (closed) {
+            throw new SiddhiAppRuntimeException("The model " + modelPath + " is already released");
+        }
+        ModelExport export = findLatestExport();
+        ModelVersion version = ModelVersion.load(export.version, export.path, tags, signatureDefKeys,
+                sessionConfig);
+        lastCheckedVersion = export.version;
+        currentVersion.set(version);
+    }
+
+    /**
+     * Waits for the model to be loaded in the background, or loads it on the calling thread if it is not started yet
+     */
+    public void awaitLoaded() {
+        load();
+    }
+
+    //an error is thrown again by the next load, when the query is started or runs its first inference
+    void loadInBackground(ExecutorService executorService) {
+        executorService.execute(() -> {
+            try {
+                load();
+            } catch (Throwable e) {
+                logger.debug("Error while loading the model " + modelPath + " in the background. " +
+                        e.getMessage(), e);
+            }
+        });
+    }
+
+    //the model is watched at a single interval, so the queries sharing it can not ask for different ones
+    synchronized void watch(ScheduledExecutorService executorService, long interval) {
+        if (watcher != null && watchInterval != interval) {
+            throw new SiddhiAppCreationException("The model " + modelPath + " is already checked for new versions " +
+                    "every " + watchInterval + " ms by another query, but the reload interval " + interval + " ms " +
+                    "is given. The queries sharing a model should use the same reload interval");
+        }
+        if (watcher == null && !closed) {
+            watcher = executorService.scheduleWithFixedDelay(this::reload, interval, interval,
+                    TimeUnit.MILLISECONDS);
+            watchInterval = interval;
+        }
+    }
+
+    //runs on the watcher thread, the new version is loaded without blocking the queries using the current one
+    private void reload() {
+        try {
+            if (currentVersion.get() == null) {
+                //the latest version is picked up when the model is loaded
+                return;
+            }
+            ModelExport export = findLatestExport();
+            if (export.version.equals(lastCheckedVersion)) {
+                return;
+            }
+            //the version is checked again at the next poll until it is loaded, since a failure to load it may be
+            //transient such as when the export is still being written
+            ModelVersion newVersion = ModelVersion.load(export.version, export.path, tags, signatureDefKeys,
+                    sessionConfig);
+            synchronized (this) {
+                ModelVersion oldVersion = currentVersion.get();
+                if (closed || oldVersion == null) {
+                    newVersion.release();
+                    return;
+                }
+                if (!oldVersion.isCompatible(newVersion)) {
+                    newVersion.release();
+                    lastCheckedVersion = export.version;
+                    logger.error("Version " + export.version + " of the model " + modelPath + " is not loaded " +
+                            "since its signature defs '" + String.join(", ", signatureDefKeys) + "' have different " +
+                            "inputs or outputs than the version in use.");
+                    return;
+                }
+                currentVersion.set(newVersion);
+                oldVersion.release();
+                lastCheckedVersion = export.version;
+            }
+            logger.info("Loaded version " + export.version + " of the model " + modelPath);
+        } catch (Throwable e) {
+            //catching throwable since an error would stop the watcher, the current version stays in use
+            logger.error("Error while loading a new version of the model " + modelPath + ". It is loaded again at " +
+                    "the next check. " + e.getMessage(), e);
+        }
+    }
+
+    synchronized void close() {
+        closed = true;
+        if (watcher != null) {
+            watcher.cancel(false);
+        }
+        ModelVersion version = currentVersion.getAndSet(null);
+        if (version != null) {
+            version.release();
+        }
+    }
+
+    //the version stays open until released, even if a newer version is swapped in meanwhile
+    public ModelVersion leaseVersion() {
+        while (true) {
+            ModelVersion version = currentVersion.get();
+            if (version == null) {
+                loadOnLease();
+                continue;
+            }
+            if (version.tryLease()) {
+                return version;
+            }
+        }
+    }
+
+    //models which are not loaded yet are loaded by the first inference
+    private void loadOnLease() {
+        try {
+            load();
+        } catch (SiddhiAppRuntimeException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new SiddhiAppRuntimeException("Error while loading the model " + modelPath + ". " +
+                    e.getMessage(), e);
+        }
+    }
+
+    private ModelExport findLatestExport() {
+        File modelDirectory = new File(modelPath);
+        if (containsSavedModel(modelDirectory)) {
+            //versions of a plain model directory are told apart by their modification time
+            return new ModelExport(String.valueOf(getLastModified(modelDirectory)), modelPath);
+        }
+        File latestDirectory = null;
+        long latestVersion = -1;
+        File[] directories = modelDirectory.listFiles(File::isDirectory);
+        if (directories != null) {
+            for (File directory : directories) {
+                if (directory.getName().matches("\\d{1,18}") && containsSavedModel(directory)) {
+                    long version = Long.parseLong(directory.getName());
+                    if (version > latestVersion) {
+                        latestVersion = version;
+                        latestDirectory = directory;
+                    }
+                }
+            }
+        }
+        if (latestDirectory == null) {
+            //letting TensorFlow report what is wrong with the directory
+            return new ModelExport("", modelPath);
+        }
+        return new ModelExport(latestDirectory.getName(), latestDirectory.getPath());
+    }
+
+    /**
+     * Reads the signature defs of the latest version from the SavedModel file without loading the model
+     */
+    private SignatureDef readSignatureDef() {
+        ModelExport export = findLatestExport();
+        SavedModel savedModel;
+        try {
+            File binaryFile = new File(export.path, SAVED_MODEL_FILES[0]);
+            if (binaryFile.isFile()) {
+                try (InputStream inputStream = Files.newInputStream(binaryFile.toPath())) {
+                    //the graphs of large models exceed the default size limit of protobuf
+                    CodedInputStream codedInputStream = CodedInputStream.newInstance(inputStream);
+                    codedInputStream.setSizeLimit(Integer.MAX_VALUE);
+                    savedModel = SavedModel.parseFrom(codedInputStream);
+                }
+            } else {
+                SavedModel.Builder builder = SavedModel.newBuilder();
+                try (Reader reader = Files.newBufferedReader(new File(export.path, SAVED_MODEL_FILES[1]).toPath(),
+                        StandardCharsets.UTF_8)) {
+                    TextFormat.merge(reader, builder);
+                }
+                savedModel = builder.build();
+            }
+        } catch (IOException e) {
+            throw new SiddhiAppCreationException("Error while reading the SavedModel in " + export.path + ". " +
+                    e.getMessage(), e);
+        }
+        //the loader of TensorFlow picks the MetaGraph with exactly the given tags
+        Set<String> tagSet = new HashSet<>(Arrays.asList(tags));
+        for (MetaGraphDef metaGraphDef : savedModel.getMetaGraphsList()) {
+            if (tagSet.equals(new HashSet<>(metaGraphDef.getMetaInfoDef().getTagsList()))) {
+                return ModelVersion.mergeSignatureDefs(metaGraphDef, signatureDefKeys, export.path);
+            }
+        }
+        throw new SiddhiAppCreationException("The SavedModel in " + export.path + " has no MetaGraph with the tags " +
+                Arrays.toString(tags));
+    }
+
+    private static boolean containsSavedModel(File directory) {
+        for (String savedModelFile : SAVED_MODEL_FILES) {
+            if (new File(directory, savedModelFile).isFile()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getLastModified(File directory) {
+        long lastModified = 0;
+        for (String savedModelFile : SAVED_MODEL_FILES) {
+            lastModified = Math.max(lastModified, new File(directory, savedModelFile).lastModified());
+        }
+        File[] variableFiles = new File(directory, VARIABLES_DIRECTORY).listFiles();
+        if (variableFiles != null) {
+            for (File variableFile : variableFiles) {
+                lastModified = Math.max(lastModified, variableFile.lastModified());
+            }
+        }
+        return lastModified;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    public String getModelPath() {
+        return modelPath;
+    }
+
+    public String getVersion() {
+        ModelVersion version = currentVersion.get();
+        return version == null ? null : version.getVersion();
+    }
+
+    public SavedModelBundle getSavedModelBundle() {
+        return currentVersion.get().getSavedModelBundle();
+    }
+
+    public Session getSession() {
+        return currentVersion.get().getSession();
+    }
+
+    public boolean isLoaded() {
+        return currentVersion.get() != null;
+    }
+
+    //read from the SavedModel file until the model is loaded
+    public SignatureDef getSignatureDef() {
+        ModelVersion version = currentVersion.get();
+        return version == null ? readSignatureDef() : version.getSignatureDef();
+    }
+
+    /**
+     * A directory holding a SavedModel along with the version it represents
+     */
+    private static class ModelExport {
+        private final String version;
+        private final String path;
+
+        private ModelExport(String version, String path) {
+            this.version = version;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.model;
+
+/**
+ * When the SavedModel of a query is loaded. Until it is loaded the signature defs are read from the saved_model.pb or
+ * saved_model.pbtxt file, so that the query is still validated when the Siddhi app is created.
+ */
+public enum ModelLoading {
+    //loaded while the Siddhi app is created
+    EAGER,
+    //loaded in the background while the Siddhi app is created, and waited for when it is started
+    PARALLEL,
+    //loaded by the first inference
+    LAZY
+}
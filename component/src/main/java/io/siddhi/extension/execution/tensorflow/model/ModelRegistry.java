@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.model;
+
+import io.siddhi.core.exception.SiddhiAppCreationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process wide registry handing out a single loaded instance of each SavedModel. Models are keyed by their canonical
+ * path, tags, signature def keys and session config, and are closed when the last query using them releases them.
+ * Watched models are polled for new versions on a single daemon thread, and models loaded in parallel are loaded on
+ * a daemon thread per core.
+ */
+public class ModelRegistry {
+    private static final Map<String, LoadedModel> MODELS = new HashMap<>();
+    private static ScheduledExecutorService watcherService;
+    private static ExecutorService loaderService;
+
+    private ModelRegistry() {
+    }
+
+    public static LoadedModel acquire(String modelPath, String[] tags, String[] signatureDefKeys) {
+        return acquire(modelPath, tags, signatureDefKeys, SessionConfig.DEFAULT, -1, ModelLoading.EAGER);
+    }
+
+    //a positive reload interval makes the model be watched for new versions, a different positive interval given
+    //by another query using the same model is rejected
+    public static LoadedModel acquire(String modelPath, String[] tags, String[] signatureDefKeys,
+                                      SessionConfig sessionConfig, long reloadInterval, ModelLoading loading) {
+        String canonicalPath = getCanonicalPath(modelPath);
+        String key = getKey(canonicalPath, tags, signatureDefKeys, sessionConfig);
+        LoadedModel model;
+        synchronized (MODELS) {
+            model = MODELS.computeIfAbsent(key, k -> new LoadedModel(k, canonicalPath, tags.clone(),
+                    signatureDefKeys.clone(), sessionConfig));
+            model.referenceCount++;
+        }
+        //loading outside the registry lock so that different models can load in parallel
+        try {
+            if (loading == ModelLoading.EAGER) {
+                model.load();
+            } else if (loading == ModelLoading.PARALLEL) {
+                model.loadInBackground(getLoaderService());
+            }
+            if (reloadInterval > 0) {
+                model.watch(getWatcherService(), reloadInterval);
+            }
+        } catch (RuntimeException e) {
+            release(model);
+            throw e;
+        }
+        return model;
+    }
+
+    public static void release(LoadedModel model) {
+        synchronized (MODELS) {
+            if (--model.referenceCount > 0) {
+                return;
+            }
+            MODELS.remove(model.getKey());
+        }
+        model.close();
+    }
+
+    public static int getReferenceCount(String modelPath, String[] tags, String[] signatureDefKeys) {
+        return getReferenceCount(modelPath, tags, signatureDefKeys, SessionConfig.DEFAULT);
+    }
+
+    public static int getReferenceCount(String modelPath, String[] tags, String[] signatureDefKeys,
+                                        SessionConfig sessionConfig) {
+        synchronized (MODELS) {
+            LoadedModel model = MODELS.get(getKey(getCanonicalPath(modelPath), tags, signatureDefKeys,
+                    sessionConfig));
+            return model == null ? 0 : model.referenceCount;
+        }
+    }
+
+    public static boolean isLoaded(String modelPath, String[] tags, String[] signatureDefKeys) {
+        synchronized (MODELS) {
+            LoadedModel model = MODELS.get(getKey(getCanonicalPath(modelPath), tags, signatureDefKeys,
+                    SessionConfig.DEFAULT));
+            return model != null && model.isLoaded();
+        }
+    }
+
+    public static int getLoadedModelCount() {
+        synchronized (MODELS) {
+            return MODELS.size();
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getWatcherService() {
+        if (watcherService == null) {
+            watcherService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "siddhi-tensorflow-model-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return watcherService;
+    }
+
+    private static synchronized ExecutorService getLoaderService() {
+        if (loaderService == null) {
+            AtomicInteger loaderCount = new AtomicInteger();
+            loaderService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "siddhi-tensorflow-model-loader-" +
+                        loaderCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return loaderService;
+    }
+
+    private static String getCanonicalPath(String modelPath) {
+        try {
+            return new File(modelPath).getCanonicalPath();
+        } catch (IOException e) {
+            throw new SiddhiAppCreationException("Error while resolving the model path " + modelPath + ". " +
+                    e.getMessage(), e);
+        }
+    }
+
+    private static String getKey(String canonicalPath, String[] tags, String[] signatureDefKeys,
+                                 SessionConfig sessionConfig) {
+        return canonicalPath + '|' + String.join(",", tags) + '|' + String.join(",", signatureDefKeys) + '|' +
+                sessionConfig;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.model;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Session;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.framework.SignatureDef;
+import org.tensorflow.framework.TensorInfo;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One loaded version of a model. It is leased for the inference of an event chunk and closed once it is replaced by a
+ * newer version and the last lease is released.
+ */
+public class ModelVersion {
+    private final String version;
+    private final String exportPath;
+    private final SavedModelBundle savedModelBundle;
+    private final SignatureDef signatureDef;
+    //leases plus one for being the current version of the model, the bundle is closed when it reaches zero
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private ModelVersion(String version, String exportPath, SavedModelBundle savedModelBundle,
+                         SignatureDef signatureDef) {
+        this.version = version;
+        this.exportPath = exportPath;
+        this.savedModelBundle = savedModelBundle;
+        this.signatureDef = signatureDef;
+    }
+
+    static ModelVersion load(String version, String exportPath, String[] tags, String[] signatureDefKeys,
+                             SessionConfig sessionConfig) {
+        byte[] configProto = sessionConfig.toConfigProto();
+        SavedModelBundle bundle = configProto == null ? SavedModelBundle.load(exportPath, tags) :
+                SavedModelBundle.loader(exportPath).withTags(tags).withConfigProto(configProto).load();
+        try {
+            SignatureDef signatureDef = mergeSignatureDefs(MetaGraphDef.parseFrom(bundle.metaGraphDef()),
+                    signatureDefKeys, exportPath);
+            return new ModelVersion(version, exportPath, bundle, signatureDef);
+        } catch (InvalidProtocolBufferException e) {
+            bundle.close();
+            throw new SiddhiAppCreationException("Error while reading signature def." + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            bundle.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Combines the signature defs so that the outputs of all of them are fetched by a single run. Inputs and outputs
+     * are kept by their key, but a key used for different tensors by several signature defs is prefixed with the
+     * signature def key as 'signatureDefKey_key'.
+     */
+    static SignatureDef mergeSignatureDefs(MetaGraphDef metaGraphDef, String[] signatureDefKeys, String exportPath) {
+        SignatureDef[] signatureDefs = new SignatureDef[signatureDefKeys.length];
+        for (int i = 0; i < signatureDefKeys.length; i++) {
+            if (!metaGraphDef.containsSignatureDef(signatureDefKeys[i])) {
+                throw new SiddhiAppCreationException("The signature def '" + signatureDefKeys[i] + "' is not " +
+                        "present in the model " + exportPath + ". Available signature defs are " +
+                        metaGraphDef.getSignatureDefMap().keySet());
+            }
+            signatureDefs[i] = metaGraphDef.getSignatureDefOrThrow(signatureDefKeys[i]);
+        }
+        if (signatureDefs.length == 1) {
+            return signatureDefs[0];
+        }
+        Map<String, TensorInfo> inputs = new LinkedHashMap<>();
+        Map<String, TensorInfo> outputs = new LinkedHashMap<>();
+        Set<String> ambiguousInputKeys = findAmbiguousKeys(signatureDefs, true);
+        Set<String> ambiguousOutputKeys = findAmbiguousKeys(signatureDefs, false);
+        for (int i = 0; i < signatureDefs.length; i++) {
+            merge(inputs, signatureDefs[i].getInputsMap(), signatureDefKeys[i], ambiguousInputKeys);
+            merge(outputs, signatureDefs[i].getOutputsMap(), signatureDefKeys[i], ambiguousOutputKeys);
+        }
+        return SignatureDef.newBuilder()
+                .setMethodName(signatureDefs[0].getMethodName())
+                .putAllInputs(inputs)
+                .putAllOutputs(outputs)
+                .build();
+    }
+
+    //keys which refer to different tensors in different signature defs
+    private static Set<String> findAmbiguousKeys(SignatureDef[] signatureDefs, boolean inputs) {
+        Map<String, String> tensorNames = new HashMap<>();
+        Set<String> ambiguousKeys = new HashSet<>();
+        for (SignatureDef signatureDef : signatureDefs) {
+            Map<String, TensorInfo> tensorInfoMap = inputs ? signatureDef.getInputsMap() :
+                    signatureDef.getOutputsMap();
+            for (Map.Entry<String, TensorInfo> entry : tensorInfoMap.entrySet()) {
+                String tensorName = tensorNames.putIfAbsent(entry.getKey(), entry.getValue().getName());
+                if (tensorName != null && !tensorName.equals(entry.getValue().getName())) {
+                    ambiguousKeys.add(entry.getKey());
+                }
+            }
+        }
+        return ambiguousKeys;
+    }
+
+    private static void merge(Map<String, TensorInfo> merged, Map<String, TensorInfo> tensorInfoMap,
+                              String signatureDefKey, Set<String> ambiguousKeys) {
+        for (Map.Entry<String, TensorInfo> entry : tensorInfoMap.entrySet()) {
+            String key = ambiguousKeys.contains(entry.getKey()) ? signatureDefKey + "_" + entry.getKey() :
+                    entry.getKey();
+            merged.putIfAbsent(key, entry.getValue());
+        }
+    }
+
+    //returns false if the version is already closed
+    boolean tryLease() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            savedModelBundle.close();
+        }
+    }
+
+    //whether the inputs and outputs of the other version can be used in place of the ones of this version
+    boolean isCompatible(ModelVersion other) {
+        return isCompatible(signatureDef.getInputsMap(), other.signatureDef.getInputsMap()) &&
+                isCompatible(signatureDef.getOutputsMap(), other.signatureDef.getOutputsMap());
+    }
+
+    private static boolean isCompatible(Map<String, TensorInfo> tensorInfoMap, Map<String, TensorInfo> otherMap) {
+        if (!tensorInfoMap.keySet().equals(otherMap.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, TensorInfo> entry : tensorInfoMap.entrySet()) {
+            TensorInfo other = otherMap.get(entry.getKey());
+            //node names may change between versions, so only the data type and the shape are compared
+            if (entry.getValue().getDtype() != other.getDtype() ||
+                    !entry.getValue().getTensorShape().equals(other.getTensorShape())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getExportPath() {
+        return exportPath;
+    }
+
+    public SavedModelBundle getSavedModelBundle() {
+        return savedModelBundle;
+    }
+
+    public Session getSession() {
+        return savedModelBundle.session();
+    }
+
+    public SignatureDef getSignatureDef() {
+        return signatureDef;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.model;
+
+import org.tensorflow.framework.ConfigProto;
+import org.tensorflow.framework.GraphOptions;
+import org.tensorflow.framework.OptimizerOptions;
+import org.tensorflow.framework.RewriterConfig;
+
+import java.util.Objects;
+
+/**
+ * Settings of the TensorFlow session a model is loaded into. Models loaded with different settings are not shared.
+ */
+public class SessionConfig {
+    public static final SessionConfig DEFAULT = new SessionConfig(0, 0, true, false);
+
+    private final int intraOpParallelism;
+    private final int interOpParallelism;
+    private final boolean graphOptimization;
+    private final boolean xlaJit;
+
+    /**
+     * @param intraOpParallelism threads used within an operation, 0 lets TensorFlow pick one per core
+     * @param interOpParallelism threads used to run independent operations, 0 lets TensorFlow pick one per core
+     * @param graphOptimization  whether Grappler optimizes the graph before it is run
+     * @param xlaJit             whether the graph is compiled with XLA
+     */
+    public SessionConfig(int intraOpParallelism, int interOpParallelism, boolean graphOptimization,
+                         boolean xlaJit) {
+        this.intraOpParallelism = intraOpParallelism;
+        this.interOpParallelism = interOpParallelism;
+        this.graphOptimization = graphOptimization;
+        this.xlaJit = xlaJit;
+    }
+
+    //serialized ConfigProto, or null to load the model with the default session options
+    byte[] toConfigProto() {
+        if (this.equals(DEFAULT)) {
+            return null;
+        }
+        GraphOptions.Builder graphOptions = GraphOptions.newBuilder();
+        if (!graphOptimization) {
+            graphOptions.setRewriteOptions(RewriterConfig.newBuilder().setDisableMetaOptimizer(true));
+        }
+        if (xlaJit) {
+            graphOptions.setOptimizerOptions(OptimizerOptions.newBuilder()
+                    .setGlobalJitLevel(OptimizerOptions.GlobalJitLevel.ON_1));
+        }
+        return ConfigProto.newBuilder()
+                .setIntraOpParallelismThreads(intraOpParallelism)
+                .setInterOpParallelismThreads(interOpParallelism)
+                .setGraphOptions(graphOptions)
+                .build()
+                .toByteArray();
+    }
+
+    public int getIntraOpParallelism() {
+        return intraOpParallelism;
+    }
+
+    public int getInterOpParallelism() {
+        return interOpParallelism;
+    }
+
+    public boolean isGraphOptimization() {
+        return graphOptimization;
+    }
+
+    public boolean isXlaJit() {
+        return xlaJit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SessionConfig)) {
+            return false;
+        }
+        SessionConfig that = (SessionConfig) o;
+        return intraOpParallelism == that.intraOpParallelism && interOpParallelism == that.interOpParallelism &&
+                graphOptimization == that.graphOptimization && xlaJit == that.xlaJit;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(intraOpParallelism, interOpParallelism, graphOptimization, xlaJit);
+    }
+
+    @Override
+    public String toString() {
+        return "intra.op.parallelism=" + intraOpParallelism + ",inter.op.parallelism=" + interOpParallelism +
+                ",graph.optimization=" + graphOptimization + ",xla.jit=" + xlaJit;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.config.SiddhiAppContext;
+import io.siddhi.core.event.ComplexEventChunk;
+import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs the inferences of event chunks on a pool of worker threads and emits the chunks on a single emitter thread in
+ * the order they were submitted. Submitting blocks while the given number of chunks are pending, and fails once the
+ * stage is stopped.
+ */
+public class AsyncInferenceStage {
+    private static final Logger logger = Logger.getLogger(AsyncInferenceStage.class);
+
+    private final String name;
+    private final Consumer<ComplexEventChunk<StreamEvent>> inference;
+    private final Consumer<ComplexEventChunk<StreamEvent>> emitter;
+    private final BlockingQueue<InferenceTask> pendingTasks;
+    private final ExecutorService workerService;
+    private final Thread emitterThread;
+    private final InferenceTask stopTask = new InferenceTask(null);
+    //submitting holds the read lock, so that no chunk is queued behind the stop task
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+    private boolean stopped;
+
+    public AsyncInferenceStage(String name, int noOfWorkers, int queueSize,
+                               Consumer<ComplexEventChunk<StreamEvent>> inference,
+                               Consumer<ComplexEventChunk<StreamEvent>> emitter) {
+        this.name = name;
+        this.inference = inference;
+        this.emitter = emitter;
+        this.pendingTasks = new ArrayBlockingQueue<>(queueSize);
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workerService = Executors.newFixedThreadPool(noOfWorkers, runnable -> {
+            Thread thread = new Thread(runnable, name + "-inference-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.emitterThread = new Thread(this::emit, name + "-emitter");
+        this.emitterThread.setDaemon(true);
+        this.emitterThread.start();
+    }
+
+    public void submit(ComplexEventChunk<StreamEvent> complexEventChunk) {
+        InferenceTask task = new InferenceTask(complexEventChunk);
+        stopLock.readLock().lock();
+        try {
+            if (stopped) {
+                throw new SiddhiAppRuntimeException("The inference of " + name + " is stopped. Dropping the " +
+                        "submitted events");
+            }
+            //blocks the submitting thread while the queue is full, applying backpressure to the upstream
+            pendingTasks.put(task);
+            workerService.execute(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SiddhiAppRuntimeException("Interrupted while waiting to submit events for the inference of " +
+                    name, e);
+        } finally {
+            stopLock.readLock().unlock();
+        }
+    }
+
+    //emits the pending chunks and then stops the threads
+    public void stop() {
+        //waits for the chunks being submitted, the emitter keeps making room for them in the queue
+        stopLock.writeLock().lock();
+        try {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        try {
+            pendingTasks.put(stopTask);
+            emitterThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitterThread.interrupt();
+        }
+        workerService.shutdown();
+    }
+
+    public int getQueueSize() {
+        return pendingTasks.size();
+    }
+
+    private void emit() {
+        while (true) {
+            InferenceTask task;
+            try {
+                task = pendingTasks.take();
+                if (task == stopTask) {
+                    return;
+                }
+                task.completion.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task.error != null) {
+                logger.error("Error while running the inference of " + name + ". Dropping the events. " +
+                        task.error.getMessage(), task.error);
+                continue;
+            }
+            if (task.complexEventChunk.getFirst() == null) {
+                continue;
+            }
+            task.startFlow();
+            try {
+                emitter.accept(task.complexEventChunk);
+            } catch (Throwable e) {
+                //catching throwable so that an error in the downstream does not stop the emitter
+                logger.error("Error while sending the inference results of " + name + ". " + e.getMessage(), e);
+            } finally {
+                task.stopFlow();
+            }
+        }
+    }
+
+    /**
+     * Inference of an event chunk carrying the partition and group by keys of the submitting thread
+     */
+    private class InferenceTask implements Runnable {
+        private final ComplexEventChunk<StreamEvent> complexEventChunk;
+        private final String partitionKey;
+        private final String groupByKey;
+        private final CountDownLatch completion = new CountDownLatch(1);
+        private volatile Throwable error;
+
+        private InferenceTask(ComplexEventChunk<StreamEvent> complexEventChunk) {
+            this.complexEventChunk = complexEventChunk;
+            this.partitionKey = SiddhiAppContext.getPartitionFlowId();
+            this.groupByKey = SiddhiAppContext.getGroupByFlowId();
+        }
+
+        @Override
+        public void run() {
+            startFlow();
+            try {
+                inference.accept(complexEventChunk);
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                stopFlow();
+                completion.countDown();
+            }
+        }
+
+        private void startFlow() {
+            if (partitionKey != null) {
+                SiddhiAppContext.startPartitionFlow(partitionKey);
+            }
+            if (groupByKey != null) {
+                SiddhiAppContext.startGroupByFlow(groupByKey);
+            }
+        }
+
+        private void stopFlow() {
+            if (partitionKey != null) {
+                SiddhiAppContext.stopPartitionFlow();
+            }
+            if (groupByKey != null) {
+                SiddhiAppContext.stopGroupByFlow();
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+import org.tensorflow.types.UInt8;
+
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.getInnerArrayLength;
+import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.put;
+import static io.siddhi.extension.execution.tensorflow.util.CoreUtils.putAll;
+
+/**
+ * Stacks the inputs of several events along a new leading batch dimension to create a single Tensor. The values are
+ * staged in a direct buffer which is copied into the Tensor as is, and the builder can be reset and reused for the
+ * next batch without allocating the buffer again.
+ */
+public class BatchTensorBuilder {
+    //the buffer grows as needed and keeps its size across batches, so this is only the first allocation in bytes
+    private static final int INITIAL_CAPACITY = 256;
+    private static final long[] SCALAR_SHAPE = new long[0];
+
+    private final TensorStringParser parser = new TensorStringParser();
+    private ByteBuffer staging = allocate(INITIAL_CAPACITY);
+    private DataType dataType;
+    private long[] elementShape;
+    private int elementSize;
+    private int batchSize;
+
+    public void add(Object value) {
+        if (value instanceof String) {
+            addArrayAsString((String) value);
+            return;
+        }
+        int offset;
+        if (value instanceof Float) {
+            offset = prepare(DataType.FLOAT, SCALAR_SHAPE, 1);
+            staging.putFloat(offset, (Float) value);
+        } else if (value instanceof Integer) {
+            offset = prepare(DataType.INT32, SCALAR_SHAPE, 1);
+            staging.putInt(offset, (Integer) value);
+        } else if (value instanceof Double) {
+            offset = prepare(DataType.DOUBLE, SCALAR_SHAPE, 1);
+            staging.putDouble(offset, (Double) value);
+        } else if (value instanceof Long) {
+            offset = prepare(DataType.INT64, SCALAR_SHAPE, 1);
+            staging.putLong(offset, (Long) value);
+        } else if (value instanceof Boolean) {
+            offset = prepare(DataType.BOOL, SCALAR_SHAPE, 1);
+            staging.put(offset, (byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof float[] || value instanceof double[] || value instanceof int[] ||
+                value instanceof long[]) {
+            int length = Array.getLength(value);
+            offset = prepare(getDataType(value), new long[]{length}, length);
+            staging.position(offset);
+            put(value, staging);
+        } else if (value instanceof float[][] || value instanceof double[][] || value instanceof int[][] ||
+                value instanceof long[][]) {
+            Object[] arrays = (Object[]) value;
+            int innerLength = getInnerArrayLength(arrays);
+            offset = prepare(getDataType(arrays.length == 0 ? value : arrays[0]),
+                    new long[]{arrays.length, innerLength}, arrays.length * innerLength);
+            staging.position(offset);
+            putAll(arrays, staging);
+        } else {
+            throw new SiddhiAppRuntimeException("Input should be a String encoded array, a scalar or one of " +
+                    "float[], double[], int[], long[] and their 2 dimensional arrays but given " +
+                    (value == null ? "null" : value.getClass().getSimpleName()));
+        }
+        batchSize++;
+    }
+
+    /**
+     * Adds an image decoded by the given decoder.
+     *
+     * @param image   image returned by {@link ImageDecoder#decode(Object)}
+     * @param decoder decoder of the image input
+     */
+    public void addImage(BufferedImage image, ImageDecoder decoder) {
+        int offset = prepare(decoder.getDataType(), decoder.getElementShape(), decoder.getElementSize());
+        staging.position(offset);
+        decoder.write(image, staging);
+        batchSize++;
+    }
+
+    /**
+     * Adds the sequence of a full window.
+     *
+     * @param window window of the sequence input of the key of the event, holding the reading of the event
+     */
+    public void addSequence(SequenceWindow window) {
+        int offset = prepare(window.getDataType(), window.getElementShape(), window.getElementSize());
+        staging.position(offset);
+        window.write(staging);
+        batchSize++;
+    }
+
+    private static DataType getDataType(Object array) {
+        if (array instanceof float[] || array instanceof float[][]) {
+            return DataType.FLOAT;
+        } else if (array instanceof double[] || array instanceof double[][]) {
+            return DataType.DOUBLE;
+        } else if (array instanceof int[] || array instanceof int[][]) {
+            return DataType.INT32;
+        }
+        return DataType.INT64;
+    }
+
+    private void addArrayAsString(String arrayAsString) {
+        parser.parse(arrayAsString);
+        int size = parser.getSize();
+        int offset = prepare(parser.getDataType(), parser.getShape(), size);
+        staging.position(offset);
+        switch (dataType) {
+            case FLOAT:
+                staging.asFloatBuffer().put(parser.getFloatValues(), 0, size);
+                break;
+            case INT32:
+                staging.asIntBuffer().put(parser.getIntValues(), 0, size);
+                break;
+            case DOUBLE:
+                staging.asDoubleBuffer().put(parser.getDoubleValues(), 0, size);
+                break;
+            default:
+                staging.asLongBuffer().put(parser.getLongValues(), 0, size);
+        }
+        batchSize++;
+    }
+
+    //validates the element against the batch and returns the byte offset to write its values
+    private int prepare(DataType type, long[] shape, int size) {
+        if (batchSize == 0) {
+            dataType = type;
+            //the parser reuses its shape array, so keep a copy
+            elementShape = shape.clone();
+            elementSize = size;
+        } else if (dataType != type) {
+            throw new SiddhiAppRuntimeException("Data type is inconsistent within the batch. Expected " + dataType +
+                    " but given " + type);
+        } else if (!Arrays.equals(elementShape, shape)) {
+            throw new SiddhiAppRuntimeException("Array shape is inconsistent within the batch. Expected " +
+                    Arrays.toString(elementShape) + " but given " + Arrays.toString(shape));
+        }
+
+        int elementBytes = elementSize * getByteSize(dataType);
+        int offset = batchSize * elementBytes;
+        ensureCapacity(offset, offset + elementBytes);
+        return offset;
+    }
+
+    //keeps the values of the elements already added when the buffer grows
+    private void ensureCapacity(int usedBytes, int requiredBytes) {
+        if (staging.capacity() >= requiredBytes) {
+            return;
+        }
+        ByteBuffer grown = allocate(Math.max(requiredBytes, staging.capacity() * 2));
+        staging.clear();
+        staging.limit(usedBytes);
+        grown.put(staging);
+        grown.clear();
+        staging = grown;
+    }
+
+    private static int getByteSize(DataType dataType) {
+        switch (dataType) {
+            case DOUBLE:
+            case INT64:
+                return Long.BYTES;
+            case BOOL:
+            case UINT8:
+                return 1;
+            default:
+                return Integer.BYTES;
+        }
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    public void removeLast() {
+        if (batchSize > 0) {
+            batchSize--;
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void reset() {
+        batchSize = 0;
+    }
+
+    public Tensor build() {
+        long[] shape = new long[elementShape.length + 1];
+        shape[0] = batchSize;
+        System.arraycopy(elementShape, 0, shape, 1, elementShape.length);
+        staging.clear();
+        staging.limit(batchSize * elementSize * getByteSize(dataType));
+        try {
+            return TensorTracker.track(Tensor.create(getType(dataType), shape, staging));
+        } finally {
+            staging.clear();
+        }
+    }
+
+    private static Class<?> getType(DataType dataType) {
+        switch (dataType) {
+            case FLOAT:
+                return Float.class;
+            case INT32:
+                return Integer.class;
+            case DOUBLE:
+                return Double.class;
+            case INT64:
+                return Long.class;
+            case UINT8:
+                return UInt8.class;
+            default:
+                return Boolean.class;
+        }
+    }
+}
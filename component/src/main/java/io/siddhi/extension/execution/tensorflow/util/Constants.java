@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Constants used by the TensorFlow SP extension
+ */
+public class Constants {
+
+    //option keys given as 'key:value' constants after the attributes
+    public static final String OPTION_BATCH_MODE = "batch.mode";
+    public static final String OPTION_BATCH_SIZE = "batch.size";
+    public static final String OPTION_BATCH_TIMEOUT = "batch.timeout.ms";
+    public static final String OPTION_MODEL_RELOAD_INTERVAL = "model.reload.interval.ms";
+    public static final String OPTION_ASYNC_WORKERS = "async.workers";
+    public static final String OPTION_ASYNC_QUEUE_SIZE = "async.queue.size";
+    public static final String OPTION_CACHE_SIZE = "cache.size";
+    public static final String OPTION_CACHE_TTL = "cache.ttl.ms";
+    public static final String OPTION_MODEL_TAGS = "model.tags";
+    public static final String OPTION_SIGNATURE_DEF_KEYS = "signature.def.keys";
+    public static final String OPTION_INTRA_OP_PARALLELISM = "intra.op.parallelism";
+    public static final String OPTION_INTER_OP_PARALLELISM = "inter.op.parallelism";
+    public static final String OPTION_GRAPH_OPTIMIZATION = "graph.optimization";
+    public static final String OPTION_XLA_JIT = "xla.jit";
+    public static final String OPTION_INFERENCE_WEIGHT = "inference.weight";
+    public static final String OPTION_MODEL_LOADING = "model.loading";
+    public static final String OPTION_WARMUP_RUNS = "warmup.runs";
+    public static final String OPTION_WARMUP_BATCH_SIZES = "warmup.batch.sizes";
+    public static final String OPTION_OUTPUT_MODE = "output.mode";
+    public static final String OPTION_IMAGE_INPUTS = "image.inputs";
+    public static final String OPTION_IMAGE_SIZE = "image.size";
+    public static final String OPTION_IMAGE_COLOR = "image.color";
+    public static final String OPTION_IMAGE_NORMALIZE = "image.normalize";
+    public static final String OPTION_SEQUENCE_INPUTS = "sequence.inputs";
+    public static final String OPTION_SEQUENCE_LENGTH = "sequence.length";
+    public static final String OPTION_RECURRENT_STATE = "recurrent.state";
+
+    //system parameter of the extension shared by all the queries
+    public static final String INFERENCE_LANES = "inference.lanes";
+
+    //options which can also be configured for the extension as system parameters
+    public static final List<String> SESSION_OPTIONS = Collections.unmodifiableList(Arrays.asList(
+            OPTION_INTRA_OP_PARALLELISM, OPTION_INTER_OP_PARALLELISM, OPTION_GRAPH_OPTIMIZATION, OPTION_XLA_JIT));
+
+    public static final List<String> SUPPORTED_OPTIONS = Collections.unmodifiableList(Arrays.asList(
+            OPTION_BATCH_MODE, OPTION_BATCH_SIZE, OPTION_BATCH_TIMEOUT, OPTION_MODEL_RELOAD_INTERVAL,
+            OPTION_ASYNC_WORKERS, OPTION_ASYNC_QUEUE_SIZE, OPTION_CACHE_SIZE, OPTION_CACHE_TTL,
+            OPTION_MODEL_TAGS, OPTION_SIGNATURE_DEF_KEYS, OPTION_INTRA_OP_PARALLELISM, OPTION_INTER_OP_PARALLELISM,
+            OPTION_GRAPH_OPTIMIZATION, OPTION_XLA_JIT, OPTION_INFERENCE_WEIGHT, OPTION_MODEL_LOADING,
+            OPTION_WARMUP_RUNS, OPTION_WARMUP_BATCH_SIZES, OPTION_OUTPUT_MODE, OPTION_IMAGE_INPUTS, OPTION_IMAGE_SIZE,
+            OPTION_IMAGE_COLOR, OPTION_IMAGE_NORMALIZE, OPTION_SEQUENCE_INPUTS, OPTION_SEQUENCE_LENGTH,
+            OPTION_RECURRENT_STATE));
+
+    public static final int DEFAULT_ASYNC_QUEUE_SIZE = 64;
+
+    private Constants() {
+    }
+}
@@ -28,8 +28,13 @@ import org.tensorflow.SavedModelBundle;
 import org.tensorflow.Shape;
 import org.tensorflow.Tensor;
 import org.tensorflow.framework.SignatureDef;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+import org.tensorflow.types.UInt8;
 
+import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -37,14 +42,22 @@ import java.nio.LongBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * Core util functions for TensorFlow SP extension
  */
 public class CoreUtils {
+    //the parser keeps its buffers between calls, so one is kept per thread
+    private static final ThreadLocal<TensorStringParser> STRING_PARSER =
+            ThreadLocal.withInitial(TensorStringParser::new);
+    //direct buffer the output tensors are copied into before being split into the event attributes
+    private static final ThreadLocal<ByteBuffer> OUTPUT_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(1024).order(ByteOrder.nativeOrder()));
+    //direct buffer the inputs given as 2 dimensional arrays are flattened into before being copied into a tensor
+    private static final ThreadLocal<ByteBuffer> INPUT_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(1024).order(ByteOrder.nativeOrder()));
 
     public static VariableExpressionExecutor[] extractAndValidateTensorFlowInputs(
             ExpressionExecutor[] attributeExpressionExecutors, int startIndex, int noOfInputs) {
@@ -71,217 +84,703 @@ public class CoreUtils {
             String opName = nodeName.substring(0, nodeName.lastIndexOf(":"));
             DataType outputDataType = tensorFlowSavedModel.graph().operation(opName).output(0)
                     .dataType();
-            if (outputDataType == DataType.STRING) {
-                attributeList.add(new Attribute(outputNamesArray[i], Attribute.Type.STRING));
-            } else {
-                Shape outputShape = tensorFlowSavedModel.graph().operation(opName).output(0).shape();
-                //Finding the total number of elements
-                int numElements = 1;
-                for (int k = 0; k < outputShape.numDimensions(); k++) {
-                    if (outputShape.size(k) == -1) {
-                        continue;
-                    }
-                    numElements *= outputShape.size(k);
-                }
-                for (int j = 0; j < numElements; j++) {
-                    if (outputDataType == DataType.FLOAT) {
-                        attributeList.add(new Attribute(outputNamesArray[i] + j, Attribute.Type.FLOAT));
-                    } else if (outputDataType == DataType.BOOL) {
-                        attributeList.add(new Attribute(outputNamesArray[i] + j, Attribute.Type.BOOL));
-                    } else if (outputDataType == DataType.DOUBLE) {
-                        attributeList.add(new Attribute(outputNamesArray[i] + j, Attribute.Type.DOUBLE));
-                    } else if (outputDataType == DataType.INT32 || outputDataType == DataType.UINT8) {
-                        attributeList.add(new Attribute(outputNamesArray[i] + j, Attribute.Type.INT));
-                    } else if (outputDataType == DataType.INT64) {
-                        attributeList.add(new Attribute(outputNamesArray[i] + j, Attribute.Type.LONG));
-                    }
+            Shape outputShape = tensorFlowSavedModel.graph().operation(opName).output(0).shape();
+            //Finding the total number of elements
+            int numElements = 1;
+            for (int k = 0; k < outputShape.numDimensions(); k++) {
+                if (outputShape.size(k) == -1) {
+                    continue;
                 }
+                numElements *= outputShape.size(k);
             }
+            addReturnAttributes(attributeList, outputNamesArray[i], outputDataType, numElements);
         }
         return attributeList;
     }
 
-    public static Object[] getOutputObjectArray(List<Tensor> outputTensorList) {
-        List<Object> objectList = new LinkedList<>();
-        for (Tensor outputTensor : outputTensorList) {
-            DataType tensorDataType = outputTensor.dataType();
-            if (tensorDataType == DataType.FLOAT) {
-                FloatBuffer floatBuffer = FloatBuffer.allocate(outputTensor.numElements());
-                outputTensor.writeTo(floatBuffer);
-                float[] floatArray = floatBuffer.array();
-                for (float value : floatArray) {
-                    objectList.add(value);
+    //used until the model is loaded, where the data types and shapes are read from the signature def instead
+    public static List<Attribute> getReturnAttributeList(SignatureDef signatureDef, int noOfOutputs,
+                                                         String[] outputNamesArray) {
+        List<Attribute> attributeList = new ArrayList<>(noOfOutputs);
+        for (int i = 0; i < noOfOutputs; i++) {
+            TensorInfo tensorInfo = signatureDef.getOutputsMap().get(outputNamesArray[i]);
+            int numElements = 1;
+            for (TensorShapeProto.Dim dim : tensorInfo.getTensorShape().getDimList()) {
+                if (dim.getSize() != -1) {
+                    numElements *= dim.getSize();
                 }
-            } else if (tensorDataType == DataType.DOUBLE) {
-                DoubleBuffer doubleBuffer = DoubleBuffer.allocate(outputTensor.numElements());
-                outputTensor.writeTo(doubleBuffer);
-                double[] doubleArray = doubleBuffer.array();
-                for (double value : doubleArray) {
-                    objectList.add(value);
+            }
+            addReturnAttributes(attributeList, outputNamesArray[i], getDataType(tensorInfo), numElements);
+        }
+        return attributeList;
+    }
+
+    private static void addReturnAttributes(List<Attribute> attributeList, String outputName,
+                                            DataType outputDataType, int numElements) {
+        if (outputDataType == DataType.STRING) {
+            attributeList.add(new Attribute(outputName, Attribute.Type.STRING));
+            return;
+        }
+        for (int j = 0; j < numElements; j++) {
+            if (outputDataType == DataType.FLOAT) {
+                attributeList.add(new Attribute(outputName + j, Attribute.Type.FLOAT));
+            } else if (outputDataType == DataType.BOOL) {
+                attributeList.add(new Attribute(outputName + j, Attribute.Type.BOOL));
+            } else if (outputDataType == DataType.DOUBLE) {
+                attributeList.add(new Attribute(outputName + j, Attribute.Type.DOUBLE));
+            } else if (outputDataType == DataType.INT32 || outputDataType == DataType.UINT8) {
+                attributeList.add(new Attribute(outputName + j, Attribute.Type.INT));
+            } else if (outputDataType == DataType.INT64) {
+                attributeList.add(new Attribute(outputName + j, Attribute.Type.LONG));
+            }
+        }
+    }
+
+    //returns null for the data types which are not supported as outputs
+    private static DataType getDataType(TensorInfo tensorInfo) {
+        switch (tensorInfo.getDtype()) {
+            case DT_FLOAT:
+                return DataType.FLOAT;
+            case DT_DOUBLE:
+                return DataType.DOUBLE;
+            case DT_INT32:
+                return DataType.INT32;
+            case DT_UINT8:
+                return DataType.UINT8;
+            case DT_INT64:
+                return DataType.INT64;
+            case DT_BOOL:
+                return DataType.BOOL;
+            case DT_STRING:
+                return DataType.STRING;
+            default:
+                return null;
+        }
+    }
+
+    public static Object[] getOutputObjectArray(List<Tensor> outputTensorList, int outputLength) {
+        //pre-sized from the return attributes, only grows when the output has dimensions unknown to the signature def
+        Object[] outputs = new Object[outputLength];
+        int offset = 0;
+        try {
+            for (Tensor outputTensor : outputTensorList) {
+                if (outputTensor.dataType() == DataType.STRING) {
+                    outputs = ensureLength(outputs, offset + 1);
+                    outputs[offset++] = getStringValue(outputTensor);
+                    continue;
                 }
-            } else if (tensorDataType == DataType.INT32) {
-                IntBuffer intBuffer = IntBuffer.allocate(outputTensor.numElements());
-                outputTensor.writeTo(intBuffer);
-                int[] intArray = intBuffer.array();
-                for (int value : intArray) {
-                    objectList.add(value);
+                int numElements = outputTensor.numElements();
+                outputs = ensureLength(outputs, offset + numElements);
+                ByteBuffer buffer = copyToOutputBuffer(outputTensor);
+                readValues(buffer, outputTensor.dataType(), 0, outputs, offset, numElements);
+                offset += numElements;
+            }
+        } finally {
+            TensorTracker.closeAll(outputTensorList);
+        }
+        return outputs;
+    }
+
+    /**
+     * Finds the return attributes of each output node, which are the attributes from its offset up to the offset of
+     * the next output node.
+     *
+     * @param attributeList return attributes of the output nodes in order
+     * @param outputNames   names of the output nodes
+     * @return the offsets of the output nodes followed by the number of return attributes
+     */
+    public static int[] getOutputOffsets(List<Attribute> attributeList, String[] outputNames) {
+        int[] offsets = new int[outputNames.length + 1];
+        int offset = 0;
+        for (int i = 0; i < outputNames.length; i++) {
+            offsets[i] = offset;
+            //an output is either a single attribute of its name or the attributes of its name suffixed by the index
+            if (offset < attributeList.size() && attributeList.get(offset).getName().equals(outputNames[i])) {
+                offset++;
+                continue;
+            }
+            int index = 0;
+            while (offset < attributeList.size() &&
+                    attributeList.get(offset).getName().equals(outputNames[i] + index)) {
+                offset++;
+                index++;
+            }
+        }
+        offsets[outputNames.length] = offset;
+        return offsets;
+    }
+
+    /**
+     * Decodes only the selected return attributes from the fetched outputs, leaving the others null.
+     *
+     * @param outputTensorList   tensors of the fetched output nodes
+     * @param fetchedOutputs     indices of the fetched output nodes
+     * @param outputOffsets      offsets given by {@link #getOutputOffsets(List, String[])}
+     * @param selectedAttributes whether each of the return attributes is selected
+     * @return the values of the return attributes
+     */
+    public static Object[] getOutputObjectArray(List<Tensor> outputTensorList, int[] fetchedOutputs,
+                                                int[] outputOffsets, boolean[] selectedAttributes) {
+        return getSelectedOutputs(outputTensorList, 1, false, fetchedOutputs, outputOffsets, selectedAttributes)[0];
+    }
+
+    /**
+     * Decodes only the selected return attributes of each event from the fetched outputs of a batch, leaving the
+     * others null.
+     *
+     * @param outputTensorList   tensors of the fetched output nodes
+     * @param batchSize          number of events in the batch
+     * @param fetchedOutputs     indices of the fetched output nodes
+     * @param outputOffsets      offsets given by {@link #getOutputOffsets(List, String[])}
+     * @param selectedAttributes whether each of the return attributes is selected
+     * @return the values of the return attributes by event
+     */
+    public static Object[][] getOutputObjectArrays(List<Tensor> outputTensorList, int batchSize, int[] fetchedOutputs,
+                                                   int[] outputOffsets, boolean[] selectedAttributes) {
+        return getSelectedOutputs(outputTensorList, batchSize, true, fetchedOutputs, outputOffsets,
+                selectedAttributes);
+    }
+
+    private static Object[][] getSelectedOutputs(List<Tensor> outputTensorList, int batchSize, boolean batched,
+                                                 int[] fetchedOutputs, int[] outputOffsets,
+                                                 boolean[] selectedAttributes) {
+        Object[][] outputs = new Object[batchSize][selectedAttributes.length];
+        try {
+            //the values are laid out from the sizes of the tensors, as when all the attributes are used
+            int offset = 0;
+            int fetched = 0;
+            for (int output = 0; output < outputOffsets.length - 1; output++) {
+                if (fetched == fetchedOutputs.length || fetchedOutputs[fetched] != output) {
+                    //only outputs of a size fixed by the signature def are left out when their attributes are used
+                    offset += outputOffsets[output + 1] - outputOffsets[output];
+                    continue;
                 }
-            } else if (tensorDataType == DataType.INT64) {
-                LongBuffer longBuffer = LongBuffer.allocate(outputTensor.numElements());
-                outputTensor.writeTo(longBuffer);
-                long[] longArray = longBuffer.array();
-                for (long value : longArray) {
-                    objectList.add(value);
+                Tensor outputTensor = outputTensorList.get(fetched++);
+                if (outputTensor.dataType() == DataType.STRING) {
+                    ensureLength(outputs, offset + 1);
+                    if (isSelected(selectedAttributes, offset)) {
+                        readStringValues(outputTensor, batchSize, batched, outputs, offset);
+                    }
+                    offset++;
+                    continue;
                 }
-            } else {
-                ByteBuffer byteBuffer = ByteBuffer.allocate(outputTensor.numBytes());
-                outputTensor.writeTo(byteBuffer);
-                byte[] byteArray = byteBuffer.array();
-                if (tensorDataType == DataType.STRING) {
-                    String recoveredString = new String(byteArray, StandardCharsets.UTF_8);
-                    objectList.add(recoveredString);
-                } else if (tensorDataType == DataType.UINT8) {
-                    for (byte value : byteArray) {
-                        objectList.add((int) value);
+                int numElements = outputTensor.numElements();
+                validateBatchSplit(numElements, batchSize);
+                int rowSize = numElements / batchSize;
+                ensureLength(outputs, offset + rowSize);
+                ByteBuffer buffer = null;
+                int from = 0;
+                while (from < rowSize) {
+                    if (!isSelected(selectedAttributes, offset + from)) {
+                        from++;
+                        continue;
                     }
-                } else {
-                    for (byte value : byteArray) {
-                        if (value == 1) {
-                            objectList.add(true);
-                        } else {
-                            objectList.add(false);
-                        }
+                    int to = from;
+                    while (to < rowSize && isSelected(selectedAttributes, offset + to)) {
+                        to++;
+                    }
+                    if (buffer == null) {
+                        buffer = copyToOutputBuffer(outputTensor);
+                    }
+                    for (int i = 0; i < batchSize; i++) {
+                        readValues(buffer, outputTensor.dataType(), i * rowSize + from, outputs[i], offset + from,
+                                to - from);
                     }
+                    from = to;
                 }
+                offset += rowSize;
             }
-
-            outputTensor.close();
+        } finally {
+            TensorTracker.closeAll(outputTensorList);
         }
-        Object[] outputs = new Object[objectList.size()];
-        objectList.toArray(outputs);
         return outputs;
     }
 
-    public static long[] getShapeOfArrayAsString(String arrayAsString) {
-        arrayAsString = arrayAsString.substring(arrayAsString.lastIndexOf(":") + 1);
-        int noDims = 0;
-        for (int i = 0; i < arrayAsString.length(); i++) {
-            if (arrayAsString.charAt(i) == ' ') {
-                continue;
-            } else if (arrayAsString.charAt(i) == '[') {
-                noDims++;
-            } else {
-                break;
+    //values beyond the return attributes have no attribute to be selected by
+    private static boolean isSelected(boolean[] selectedAttributes, int index) {
+        return index < selectedAttributes.length && selectedAttributes[index];
+    }
+
+    private static void readStringValues(Tensor outputTensor, int batchSize, boolean batched, Object[][] outputs,
+                                         int offset) {
+        if (outputTensor.numDimensions() == 1 && batched) {
+            byte[][] byteArrays = new byte[(int) outputTensor.shape()[0]][];
+            outputTensor.copyTo(byteArrays);
+            validateBatchSplit(byteArrays.length, batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                outputs[i][offset] = new String(byteArrays[i], StandardCharsets.UTF_8);
             }
+        } else {
+            validateBatchSplit(1, batchSize);
+            outputs[0][offset] = getStringValue(outputTensor);
         }
+    }
 
-        long[] shape = new long[noDims];
-        Stack bracketStack = new Stack();
-        Stack countStack = new Stack();
-
-        for (int i = 0; i < arrayAsString.length(); i++) {
-            if (arrayAsString.charAt(i) == '[') {
-                bracketStack.push("[");
-                countStack.push(0);
-            } else if (arrayAsString.charAt(i) == ',') {
-                int tempNum = (int) countStack.pop();
-                countStack.push(tempNum + 1);
-            } else if (arrayAsString.charAt(i) == ']') {
-                int tempSize = (int) countStack.pop();
-                tempSize = tempSize + 1;
-                bracketStack.pop();
-                if (shape[bracketStack.size()] == 0) {
-                    shape[bracketStack.size()] = tempSize;
-                } else if (!(shape[bracketStack.size()] == tempSize)) {
-                    throw new SiddhiAppRuntimeException("Array size is inconsistent");
+    public static Object[][] getOutputObjectArrays(List<Tensor> outputTensorList, int batchSize, int outputLength) {
+        Object[][] outputs = new Object[batchSize][outputLength];
+        int offset = 0;
+        try {
+            for (Tensor outputTensor : outputTensorList) {
+                if (outputTensor.dataType() == DataType.STRING && outputTensor.numDimensions() == 1) {
+                    //string tensors keep one element per event after batching
+                    byte[][] byteArrays = new byte[(int) outputTensor.shape()[0]][];
+                    outputTensor.copyTo(byteArrays);
+                    validateBatchSplit(byteArrays.length, batchSize);
+                    ensureLength(outputs, offset + 1);
+                    for (int i = 0; i < batchSize; i++) {
+                        outputs[i][offset] = new String(byteArrays[i], StandardCharsets.UTF_8);
+                    }
+                    offset++;
+                } else if (outputTensor.dataType() == DataType.STRING) {
+                    validateBatchSplit(1, batchSize);
+                    ensureLength(outputs, offset + 1);
+                    outputs[0][offset++] = getStringValue(outputTensor);
+                } else {
+                    int numElements = outputTensor.numElements();
+                    validateBatchSplit(numElements, batchSize);
+                    int rowSize = numElements / batchSize;
+                    ensureLength(outputs, offset + rowSize);
+                    ByteBuffer buffer = copyToOutputBuffer(outputTensor);
+                    for (int i = 0; i < batchSize; i++) {
+                        readValues(buffer, outputTensor.dataType(), i * rowSize, outputs[i], offset, rowSize);
+                    }
+                    offset += rowSize;
                 }
             }
+        } finally {
+            TensorTracker.closeAll(outputTensorList);
         }
-        return shape;
+        return outputs;
     }
 
-    public static Tensor createTensor(String arrayAsString) throws CharacterCodingException {
-        long[] shape = getShapeOfArrayAsString(arrayAsString);
-        Tensor tensor;
-
-        String dataType = arrayAsString.substring(0, arrayAsString.lastIndexOf(":"));
-        dataType = dataType.replaceAll("\\s", "");
-        arrayAsString = arrayAsString.substring(arrayAsString.lastIndexOf(":") + 1);
-
-        arrayAsString = arrayAsString.replaceAll("]", " ");
-        arrayAsString = arrayAsString.replaceAll(",", " ");
-        arrayAsString = arrayAsString.replaceAll("\\[", " ");
-        String[] stringArray = arrayAsString.split(" ");
-
-        List tempList = new LinkedList();
-        for (String string : stringArray) {
-            if (string != null && (!string.isEmpty())) {
-                tempList.add(string);
+    /**
+     * Decodes each output tensor into a single value, a primitive array or a TensorValue based on the output mode
+     */
+    public static Object[] getOutputValues(List<Tensor> outputTensorList, OutputMode outputMode) {
+        Object[] outputs = new Object[outputTensorList.size()];
+        try {
+            for (int i = 0; i < outputs.length; i++) {
+                Tensor outputTensor = outputTensorList.get(i);
+                outputs[i] = outputMode == OutputMode.ARRAY ? toArray(outputTensor) : toTensorValue(outputTensor);
+            }
+        } finally {
+            TensorTracker.closeAll(outputTensorList);
+        }
+        return outputs;
+    }
+
+    //each event gets its row of the leading batch dimension of the outputs
+    public static Object[][] getOutputValueArrays(List<Tensor> outputTensorList, int batchSize,
+                                                  OutputMode outputMode) {
+        Object[][] outputs = new Object[batchSize][outputTensorList.size()];
+        try {
+            for (int j = 0; j < outputTensorList.size(); j++) {
+                Tensor outputTensor = outputTensorList.get(j);
+                long[] shape = outputTensor.shape();
+                if (shape.length == 0 || shape[0] != batchSize) {
+                    throw new SiddhiAppRuntimeException("Output tensor of shape " + Arrays.toString(shape) +
+                            " can not be split into " + batchSize + " events");
+                }
+                if (outputMode == OutputMode.ARRAY) {
+                    Object array = toArray(outputTensor);
+                    for (int i = 0; i < batchSize; i++) {
+                        outputs[i][j] = Array.get(array, i);
+                    }
+                    continue;
+                }
+                TensorValue tensorValue = toTensorValue(outputTensor);
+                long[] rowShape = Arrays.copyOfRange(shape, 1, shape.length);
+                Object data = tensorValue.getData();
+                int rowSize = Array.getLength(data) / batchSize;
+                for (int i = 0; i < batchSize; i++) {
+                    Object rowData = Array.newInstance(data.getClass().getComponentType(), rowSize);
+                    System.arraycopy(data, i * rowSize, rowData, 0, rowSize);
+                    outputs[i][j] = new TensorValue(rowShape.clone(), tensorValue.getDataType(), rowData);
+                }
             }
+        } finally {
+            TensorTracker.closeAll(outputTensorList);
         }
+        return outputs;
+    }
 
-        //handling scalars
-        if (tempList.size() == 1) {
+    //scalars are boxed, other tensors are copied into a primitive array of their rank
+    private static Object toArray(Tensor outputTensor) {
+        DataType dataType = outputTensor.dataType();
+        if (outputTensor.numDimensions() == 0) {
             switch (dataType) {
-                case "float":
-                    tensor = Tensor.create(Float.parseFloat((String) tempList.get(0)));
-                    return tensor;
-                case "int":
-                    tensor = Tensor.create(Integer.parseInt((String) tempList.get(0)));
-                    return tensor;
-                case "double":
-                    tensor = Tensor.create(Double.parseDouble((String) tempList.get(0)));
-                    return tensor;
-                case "long":
-                    tensor = Tensor.create(Long.parseLong((String) tempList.get(0)));
-                    return tensor;
+                case FLOAT:
+                    return outputTensor.floatValue();
+                case DOUBLE:
+                    return outputTensor.doubleValue();
+                case INT32:
+                    return outputTensor.intValue();
+                case INT64:
+                    return outputTensor.longValue();
+                case BOOL:
+                    return outputTensor.booleanValue();
+                case STRING:
+                    return new String(outputTensor.bytesValue(), StandardCharsets.UTF_8);
                 default:
-                    throw new SiddhiAppRuntimeException("Number encoded as String should have one of int, " +
-                            "long, float, double as prefix but given " + dataType);
+                    return ((byte[]) toTensorValue(outputTensor).getData())[0];
+            }
+        }
+        int[] shape = new int[outputTensor.numDimensions()];
+        for (int i = 0; i < shape.length; i++) {
+            shape[i] = (int) outputTensor.shape()[i];
+        }
+        if (dataType == DataType.STRING) {
+            Object byteArrays = Array.newInstance(byte[].class, shape);
+            outputTensor.copyTo(byteArrays);
+            Object strings = Array.newInstance(String.class, shape);
+            copyStrings(byteArrays, strings);
+            return strings;
+        }
+        Object array = Array.newInstance(getPrimitiveType(dataType), shape);
+        outputTensor.copyTo(array);
+        return array;
+    }
+
+    private static void copyStrings(Object byteArrays, Object strings) {
+        if (byteArrays instanceof byte[][]) {
+            byte[][] values = (byte[][]) byteArrays;
+            for (int i = 0; i < values.length; i++) {
+                ((String[]) strings)[i] = new String(values[i], StandardCharsets.UTF_8);
             }
+            return;
+        }
+        for (int i = 0; i < ((Object[]) byteArrays).length; i++) {
+            copyStrings(((Object[]) byteArrays)[i], ((Object[]) strings)[i]);
+        }
+    }
+
+    private static Class<?> getPrimitiveType(DataType dataType) {
+        switch (dataType) {
+            case FLOAT:
+                return float.class;
+            case DOUBLE:
+                return double.class;
+            case INT32:
+                return int.class;
+            case INT64:
+                return long.class;
+            case UINT8:
+                return byte.class;
+            case BOOL:
+                return boolean.class;
+            default:
+                throw new SiddhiAppRuntimeException("Output tensors of type " + dataType + " are not supported");
         }
+    }
 
-        //handling non-scalars
+    private static TensorValue toTensorValue(Tensor outputTensor) {
+        DataType dataType = outputTensor.dataType();
+        int numElements = outputTensor.numElements();
+        Object data;
         switch (dataType) {
-            case "float":
-                FloatBuffer floatBuffer = FloatBuffer.allocate(tempList.size());
-                for (Object string : tempList) {
-                    floatBuffer.put(Float.parseFloat((String) string));
+            case FLOAT:
+                float[] floatValues = new float[numElements];
+                outputTensor.writeTo(FloatBuffer.wrap(floatValues));
+                data = floatValues;
+                break;
+            case DOUBLE:
+                double[] doubleValues = new double[numElements];
+                outputTensor.writeTo(DoubleBuffer.wrap(doubleValues));
+                data = doubleValues;
+                break;
+            case INT32:
+                int[] intValues = new int[numElements];
+                outputTensor.writeTo(IntBuffer.wrap(intValues));
+                data = intValues;
+                break;
+            case INT64:
+                long[] longValues = new long[numElements];
+                outputTensor.writeTo(LongBuffer.wrap(longValues));
+                data = longValues;
+                break;
+            case UINT8:
+                byte[] byteValues = new byte[numElements];
+                outputTensor.writeTo(ByteBuffer.wrap(byteValues));
+                data = byteValues;
+                break;
+            case BOOL:
+                ByteBuffer buffer = copyToOutputBuffer(outputTensor);
+                boolean[] booleanValues = new boolean[numElements];
+                for (int i = 0; i < numElements; i++) {
+                    booleanValues[i] = buffer.get(i) == 1;
+                }
+                data = booleanValues;
+                break;
+            case STRING:
+                String[] strings = new String[numElements];
+                if (outputTensor.numDimensions() == 0) {
+                    strings[0] = new String(outputTensor.bytesValue(), StandardCharsets.UTF_8);
+                } else {
+                    flattenStrings(toArray(outputTensor), strings, 0);
+                }
+                data = strings;
+                break;
+            default:
+                throw new SiddhiAppRuntimeException("Output tensors of type " + dataType + " are not supported");
+        }
+        return new TensorValue(outputTensor.shape(), dataType, data);
+    }
+
+    private static int flattenStrings(Object strings, String[] flatStrings, int offset) {
+        if (strings instanceof String[]) {
+            String[] values = (String[]) strings;
+            System.arraycopy(values, 0, flatStrings, offset, values.length);
+            return offset + values.length;
+        }
+        for (Object innerStrings : (Object[]) strings) {
+            offset = flattenStrings(innerStrings, flatStrings, offset);
+        }
+        return offset;
+    }
+
+    private static void validateBatchSplit(int numElements, int batchSize) {
+        if (numElements % batchSize != 0) {
+            throw new SiddhiAppRuntimeException("Output tensor of " + numElements + " elements can not be split " +
+                    "into " + batchSize + " events");
+        }
+    }
+
+    private static Object[] ensureLength(Object[] outputs, int length) {
+        return outputs.length >= length ? outputs : Arrays.copyOf(outputs, length);
+    }
+
+    private static void ensureLength(Object[][] outputs, int length) {
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = ensureLength(outputs[i], length);
+        }
+    }
+
+    //copies the tensor into this thread's direct buffer without allocating a heap buffer for each output
+    private static ByteBuffer copyToOutputBuffer(Tensor outputTensor) {
+        ByteBuffer buffer = OUTPUT_BUFFER.get();
+        if (buffer.capacity() < outputTensor.numBytes()) {
+            buffer = ByteBuffer.allocateDirect(Math.max(outputTensor.numBytes(), buffer.capacity() * 2))
+                    .order(ByteOrder.nativeOrder());
+            OUTPUT_BUFFER.set(buffer);
+        }
+        buffer.clear();
+        outputTensor.writeTo(buffer);
+        return buffer;
+    }
+
+    private static void readValues(ByteBuffer buffer, DataType dataType, int from, Object[] outputs, int offset,
+                                   int length) {
+        switch (dataType) {
+            case FLOAT:
+                for (int i = 0; i < length; i++) {
+                    outputs[offset + i] = buffer.getFloat((from + i) * Float.BYTES);
                 }
-                floatBuffer.flip();
-                tensor = Tensor.create(shape, floatBuffer);
-                return tensor;
-
-            case "int":
-                IntBuffer intBuffer = IntBuffer.allocate(tempList.size());
-                for (Object string : tempList) {
-                    intBuffer.put(Integer.parseInt((String) string));
+                break;
+            case DOUBLE:
+                for (int i = 0; i < length; i++) {
+                    outputs[offset + i] = buffer.getDouble((from + i) * Double.BYTES);
+                }
+                break;
+            case INT32:
+                for (int i = 0; i < length; i++) {
+                    outputs[offset + i] = buffer.getInt((from + i) * Integer.BYTES);
+                }
+                break;
+            case INT64:
+                for (int i = 0; i < length; i++) {
+                    outputs[offset + i] = buffer.getLong((from + i) * Long.BYTES);
                 }
-                intBuffer.flip();
-                tensor = Tensor.create(shape, intBuffer);
-                return tensor;
-
-            case "double":
-                DoubleBuffer doubleBuffer = DoubleBuffer.allocate(tempList.size());
-                for (Object string : tempList) {
-                    doubleBuffer.put(Double.parseDouble((String) string));
+                break;
+            case UINT8:
+                for (int i = 0; i < length; i++) {
+                    outputs[offset + i] = (int) buffer.get(from + i);
                 }
-                doubleBuffer.flip();
-                tensor = Tensor.create(shape, doubleBuffer);
-                return tensor;
-
-            case "long":
-                LongBuffer longBuffer = LongBuffer.allocate(tempList.size());
-                for (Object string : tempList) {
-                    longBuffer.put(Long.parseLong((String) string));
+                break;
+            default:
+                for (int i = 0; i < length; i++) {
+                    outputs[offset + i] = buffer.get(from + i) == 1;
                 }
-                longBuffer.flip();
-                tensor = Tensor.create(shape, longBuffer);
-                return tensor;
+        }
+    }
 
+    private static String getStringValue(Tensor outputTensor) {
+        if (outputTensor.numDimensions() == 0) {
+            return new String(outputTensor.bytesValue(), StandardCharsets.UTF_8);
+        }
+        //other string tensors are sent as their raw encoding in a single attribute
+        ByteBuffer byteBuffer = ByteBuffer.allocate(outputTensor.numBytes());
+        outputTensor.writeTo(byteBuffer);
+        return new String(byteBuffer.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks whether the number of elements of an output for an event is fixed by the signature def, where the batch
+     * dimension holds a row for each event.
+     *
+     * @param tensorInfo signature def entry of the output node
+     * @return whether the output always has the same number of return attributes
+     */
+    public static boolean hasFixedSize(TensorInfo tensorInfo) {
+        if (getDataType(tensorInfo) == DataType.STRING) {
+            return true;
+        }
+        TensorShapeProto tensorShape = tensorInfo.getTensorShape();
+        if (tensorShape.getUnknownRank()) {
+            return false;
+        }
+        for (int i = 0; i < tensorShape.getDimCount(); i++) {
+            if (tensorShape.getDim(i).getSize() == -1 && i > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean hasBatchDimension(TensorInfo tensorInfo) {
+        TensorShapeProto tensorShape = tensorInfo.getTensorShape();
+        return tensorShape.getUnknownRank() ||
+                (tensorShape.getDimCount() > 0 && tensorShape.getDim(0).getSize() == -1);
+    }
+
+    public static long[] getShapeOfArrayAsString(String arrayAsString) {
+        TensorStringParser parser = STRING_PARSER.get();
+        parser.parse(arrayAsString);
+        return parser.getShape().clone();
+    }
+
+    public static Tensor createTensor(Object value) throws CharacterCodingException {
+        if (value instanceof String) {
+            return createTensor((String) value);
+        }
+        return TensorTracker.track(createTensorOfObject(value));
+    }
+
+    private static Tensor createTensorOfObject(Object value) {
+        if (value instanceof float[]) {
+            float[] floatArray = (float[]) value;
+            return Tensor.create(new long[]{floatArray.length}, FloatBuffer.wrap(floatArray));
+        } else if (value instanceof double[]) {
+            double[] doubleArray = (double[]) value;
+            return Tensor.create(new long[]{doubleArray.length}, DoubleBuffer.wrap(doubleArray));
+        } else if (value instanceof int[]) {
+            int[] intArray = (int[]) value;
+            return Tensor.create(new long[]{intArray.length}, IntBuffer.wrap(intArray));
+        } else if (value instanceof long[]) {
+            long[] longArray = (long[]) value;
+            return Tensor.create(new long[]{longArray.length}, LongBuffer.wrap(longArray));
+        } else if (value instanceof float[][] || value instanceof double[][] || value instanceof int[][] ||
+                value instanceof long[][]) {
+            Object[] arrays = (Object[]) value;
+            int innerLength = getInnerArrayLength(arrays);
+            int size = arrays.length * innerLength;
+            long[] shape = new long[]{arrays.length, innerLength};
+            //flattened into the staging buffer of the thread instead of a new array for each event
+            Class<?> type;
+            ByteBuffer buffer;
+            if (value instanceof float[][]) {
+                type = Float.class;
+                buffer = getInputBuffer(size * Float.BYTES);
+            } else if (value instanceof double[][]) {
+                type = Double.class;
+                buffer = getInputBuffer(size * Double.BYTES);
+            } else if (value instanceof int[][]) {
+                type = Integer.class;
+                buffer = getInputBuffer(size * Integer.BYTES);
+            } else {
+                type = Long.class;
+                buffer = getInputBuffer(size * Long.BYTES);
+            }
+            putAll(arrays, buffer);
+            buffer.flip();
+            return Tensor.create(type, shape, buffer);
+        } else if (value == null) {
+            throw new SiddhiAppRuntimeException("Input value is null");
+        }
+        //scalars of int, long, float, double, bool and other multidimensional arrays
+        return Tensor.create(value);
+    }
+
+    public static int getInnerArrayLength(Object[] arrays) {
+        int innerLength = arrays.length == 0 ? 0 : Array.getLength(arrays[0]);
+        for (Object array : arrays) {
+            if (Array.getLength(array) != innerLength) {
+                throw new SiddhiAppRuntimeException("Array size is inconsistent");
+            }
+        }
+        return innerLength;
+    }
+
+    //writes the arrays one after the other from the position of the buffer
+    public static void putAll(Object[] arrays, ByteBuffer buffer) {
+        for (Object array : arrays) {
+            put(array, buffer);
+        }
+    }
+
+    //writes a float[], double[], int[] or long[] from the position of the buffer and moves the position past it
+    public static void put(Object array, ByteBuffer buffer) {
+        int position = buffer.position();
+        if (array instanceof float[]) {
+            float[] values = (float[]) array;
+            buffer.asFloatBuffer().put(values);
+            buffer.position(position + values.length * Float.BYTES);
+        } else if (array instanceof double[]) {
+            double[] values = (double[]) array;
+            buffer.asDoubleBuffer().put(values);
+            buffer.position(position + values.length * Double.BYTES);
+        } else if (array instanceof int[]) {
+            int[] values = (int[]) array;
+            buffer.asIntBuffer().put(values);
+            buffer.position(position + values.length * Integer.BYTES);
+        } else {
+            long[] values = (long[]) array;
+            buffer.asLongBuffer().put(values);
+            buffer.position(position + values.length * Long.BYTES);
+        }
+    }
+
+    //this thread's direct buffer limited to the given number of bytes, to stage the values of an input tensor
+    static ByteBuffer getInputBuffer(int bytes) {
+        ByteBuffer buffer = INPUT_BUFFER.get();
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(Math.max(bytes, buffer.capacity() * 2)).order(ByteOrder.nativeOrder());
+            INPUT_BUFFER.set(buffer);
+        }
+        buffer.clear();
+        buffer.limit(bytes);
+        return buffer;
+    }
+
+    /**
+     * Creates a Tensor of zeros with the given shape. Returns null for the data types other than the numeric and
+     * boolean ones.
+     */
+    public static Tensor createZerosTensor(DataType dataType, long[] shape) {
+        int size = 1;
+        for (long dimension : shape) {
+            size *= (int) dimension;
+        }
+        switch (dataType) {
+            case FLOAT:
+                return Tensor.create(shape, FloatBuffer.allocate(size));
+            case DOUBLE:
+                return Tensor.create(shape, DoubleBuffer.allocate(size));
+            case INT32:
+                return Tensor.create(shape, IntBuffer.allocate(size));
+            case INT64:
+                return Tensor.create(shape, LongBuffer.allocate(size));
+            case BOOL:
+                return Tensor.create(Boolean.class, shape, ByteBuffer.allocate(size));
+            case UINT8:
+                return Tensor.create(UInt8.class, shape, ByteBuffer.allocate(size));
             default:
-                throw new SiddhiAppRuntimeException("Array encoded as String should have one of int, long, " +
-                        "float, double as prefix but given " + dataType);
+                return null;
         }
     }
+
+    public static Tensor createTensor(String arrayAsString) throws CharacterCodingException {
+        TensorStringParser parser = STRING_PARSER.get();
+        parser.parse(arrayAsString);
+        return TensorTracker.track(parser.createTensor());
+    }
 }
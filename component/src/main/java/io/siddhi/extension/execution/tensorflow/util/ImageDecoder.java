@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+import org.tensorflow.types.UInt8;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+
+/**
+ * Decodes the PNG and JPEG images given as byte[] to an image input, resizing them and converting them to grayscale
+ * or RGB as the model expects. The pixels are written row by row with the channels of a pixel next to each other,
+ * scaled to [0, 1] for float inputs when normalized.
+ */
+public class ImageDecoder {
+    private static ExecutorService decoderService;
+
+    private final int height;
+    private final int width;
+    private final int channels;
+    private final DataType dataType;
+    private final float scale;
+    private final long[] elementShape;
+    private final long[] tensorShape;
+    private final int elementSize;
+
+    private ImageDecoder(int height, int width, int channels, DataType dataType, boolean normalize,
+                         long[] elementShape, boolean batched) {
+        this.height = height;
+        this.width = width;
+        this.channels = channels;
+        this.dataType = dataType;
+        this.scale = normalize ? 1f / 255 : 1f;
+        this.elementShape = elementShape;
+        this.elementSize = height * width * channels;
+        if (batched) {
+            tensorShape = new long[elementShape.length + 1];
+            tensorShape[0] = 1;
+            System.arraycopy(elementShape, 0, tensorShape, 1, elementShape.length);
+        } else {
+            tensorShape = elementShape;
+        }
+    }
+
+    /**
+     * Creates the decoder of an image input from its shape in the signature def. The size and the channels are taken
+     * from the shape when it has them, otherwise they have to be given.
+     *
+     * @param inputName  name of the input node
+     * @param tensorInfo signature def entry of the input node
+     * @param size       height and width of the images, or null to take them from the shape
+     * @param channels   1 for grayscale and 3 for RGB, or 0 to take it from the shape
+     * @param normalize  whether to scale the pixels to [0, 1] for float inputs
+     * @return the decoder of the input
+     */
+    public static ImageDecoder create(String inputName, TensorInfo tensorInfo, int[] size, int channels,
+                                      boolean normalize) {
+        DataType dataType;
+        switch (tensorInfo.getDtype()) {
+            case DT_UINT8:
+                dataType = DataType.UINT8;
+                break;
+            case DT_FLOAT:
+                dataType = DataType.FLOAT;
+                break;
+            default:
+                throw new SiddhiAppCreationException("Image input " + inputName + " should be of type uint8 or " +
+                        "float but the signature def has " + tensorInfo.getDtype());
+        }
+
+        //the dimensions of an image after the batch dimension, as [height, width, channels], [height, width] or a
+        //flattened [height * width * channels]
+        TensorShapeProto tensorShape = tensorInfo.getTensorShape();
+        boolean batched = CoreUtils.hasBatchDimension(tensorInfo);
+        long[] dims;
+        if (tensorShape.getUnknownRank()) {
+            dims = new long[]{-1, -1, channels == 0 ? -1 : channels};
+        } else {
+            dims = new long[tensorShape.getDimCount() - (batched ? 1 : 0)];
+            for (int i = 0; i < dims.length; i++) {
+                dims[i] = tensorShape.getDim(i + (batched ? 1 : 0)).getSize();
+            }
+        }
+        if (dims.length < 1 || dims.length > 3) {
+            throw new SiddhiAppCreationException("Image input " + inputName + " should have the shape [height, " +
+                    "width, channels], [height, width] or a flattened one after the batch dimension but the " +
+                    "signature def has " + Arrays.toString(dims));
+        }
+
+        if (dims.length == 3) {
+            channels = resolve(inputName, "channels", dims, 2, channels);
+        } else if (channels == 0) {
+            channels = 1;
+        }
+        if (channels != 1 && channels != 3) {
+            throw new SiddhiAppCreationException("Image input " + inputName + " should have 1 or 3 channels but " +
+                    "has " + channels);
+        }
+        int height;
+        int width;
+        if (dims.length > 1) {
+            height = resolve(inputName, "height", dims, 0, size == null ? 0 : size[0]);
+            width = resolve(inputName, "width", dims, 1, size == null ? 0 : size[1]);
+        } else if (size == null) {
+            throw new SiddhiAppCreationException("The size of the images has to be given for the image input " +
+                    inputName + " since its shape in the signature def is " + Arrays.toString(dims));
+        } else {
+            height = size[0];
+            width = size[1];
+            if (dims[0] == -1) {
+                dims[0] = (long) height * width * channels;
+            } else if (dims[0] != (long) height * width * channels) {
+                throw new SiddhiAppCreationException("Image input " + inputName + " expects " + dims[0] +
+                        " values but images of " + height + "x" + width + " with " + channels + " channels have " +
+                        (long) height * width * channels);
+            }
+        }
+        return new ImageDecoder(height, width, channels, dataType, normalize, dims, batched);
+    }
+
+    //fills the dimension of the shape from the given value, which has to match it when the shape has it
+    private static int resolve(String inputName, String dimension, long[] dims, int index, int given) {
+        if (dims[index] == -1) {
+            if (given <= 0) {
+                throw new SiddhiAppCreationException("The " + dimension + " of the images has to be given for " +
+                        "the image input " + inputName + " since it is not fixed in the signature def");
+            }
+            dims[index] = given;
+        } else if (given > 0 && given != dims[index]) {
+            throw new SiddhiAppCreationException("Image input " + inputName + " has the " + dimension + " " +
+                    dims[index] + " in the signature def but " + given + " is given");
+        }
+        return (int) dims[index];
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public long[] getElementShape() {
+        return elementShape;
+    }
+
+    public int getElementSize() {
+        return elementSize;
+    }
+
+    /**
+     * Decodes the image and converts it to the size and the channels of the input.
+     *
+     * @param value encoded bytes of a PNG or JPEG image
+     * @return the image with the size and the channels of the input
+     */
+    public BufferedImage decode(Object value) {
+        if (!(value instanceof byte[])) {
+            throw new SiddhiAppRuntimeException("Image input should be the encoded bytes of a PNG or JPEG image " +
+                    "but given " + (value == null ? "null" : value.getClass().getSimpleName()));
+        }
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream((byte[]) value));
+        } catch (IOException e) {
+            throw new SiddhiAppRuntimeException("Error while decoding the image. " + e.getMessage(), e);
+        }
+        if (image == null) {
+            throw new SiddhiAppRuntimeException("Image input is neither a PNG nor a JPEG image");
+        }
+        if (channels == 1 && image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return resize(image, BufferedImage.TYPE_BYTE_GRAY);
+        }
+        BufferedImage rgbImage = resize(image, BufferedImage.TYPE_INT_RGB);
+        return channels == 1 ? toGray(rgbImage) : rgbImage;
+    }
+
+    private BufferedImage resize(BufferedImage image, int type) {
+        if (image.getType() == type && image.getHeight() == height && image.getWidth() == width) {
+            return image;
+        }
+        BufferedImage resized = new BufferedImage(width, height, type);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    //drawing into a gray image would convert to the linear gray color space, so the luma is computed as done by
+    //the usual image libraries instead
+    private BufferedImage toGray(BufferedImage rgbImage) {
+        int[] rgbPixels = ((DataBufferInt) rgbImage.getRaster().getDataBuffer()).getData();
+        BufferedImage grayImage = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] grayPixels = ((DataBufferByte) grayImage.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < grayPixels.length; i++) {
+            int pixel = rgbPixels[i];
+            grayPixels[i] = (byte) Math.round(0.299f * ((pixel >> 16) & 0xff) + 0.587f * ((pixel >> 8) & 0xff) +
+                    0.114f * (pixel & 0xff));
+        }
+        return grayImage;
+    }
+
+    /**
+     * Writes the pixels of a decoded image from the position of the buffer and moves the position past them.
+     *
+     * @param image  image returned by {@link #decode(Object)}
+     * @param buffer native ordered buffer with enough space for the pixels
+     */
+    public void write(BufferedImage image, ByteBuffer buffer) {
+        if (channels == 1) {
+            byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            if (dataType == DataType.UINT8) {
+                buffer.put(pixels, 0, elementSize);
+            } else {
+                for (int i = 0; i < elementSize; i++) {
+                    buffer.putFloat((pixels[i] & 0xff) * scale);
+                }
+            }
+            return;
+        }
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < height * width; i++) {
+            int pixel = pixels[i];
+            if (dataType == DataType.UINT8) {
+                buffer.put((byte) (pixel >> 16));
+                buffer.put((byte) (pixel >> 8));
+                buffer.put((byte) pixel);
+            } else {
+                buffer.putFloat(((pixel >> 16) & 0xff) * scale);
+                buffer.putFloat(((pixel >> 8) & 0xff) * scale);
+                buffer.putFloat((pixel & 0xff) * scale);
+            }
+        }
+    }
+
+    /**
+     * Creates the Tensor of a single image, with a leading batch dimension of 1 when the input has one.
+     *
+     * @param value encoded bytes of a PNG or JPEG image
+     * @return the image as a Tensor
+     */
+    public Tensor createTensor(Object value) {
+        BufferedImage image = decode(value);
+        ByteBuffer buffer = CoreUtils.getInputBuffer(elementSize * (dataType == DataType.UINT8 ? 1 : Float.BYTES));
+        write(image, buffer);
+        buffer.flip();
+        Class<?> type = dataType == DataType.UINT8 ? UInt8.class : Float.class;
+        return TensorTracker.track(Tensor.create(type, tensorShape, buffer));
+    }
+
+    /**
+     * Decodes the images of a chunk in parallel. Each image is replaced by the decoded one, or by the error when it
+     * could not be decoded so that only that event is dropped.
+     *
+     * @param inputValuesList input values of the events of the chunk
+     * @param decoders        decoders by input index, null for the inputs which are not images
+     * @return the input values with the images decoded
+     */
+    public static List<Object[]> decodeAll(List<Object[]> inputValuesList, ImageDecoder[] decoders) {
+        List<Object[]> decodedValuesList = new ArrayList<>(inputValuesList.size());
+        for (Object[] inputValues : inputValuesList) {
+            decodedValuesList.add(inputValues.clone());
+        }
+        if (decodedValuesList.size() == 1) {
+            decode(decodedValuesList.get(0), decoders);
+            return decodedValuesList;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(decodedValuesList.size());
+        for (Object[] decodedValues : decodedValuesList) {
+            tasks.add(() -> {
+                decode(decodedValues, decoders);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : getDecoderService().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SiddhiAppRuntimeException("Interrupted while decoding the images", e);
+        } catch (ExecutionException e) {
+            throw new SiddhiAppRuntimeException("Error while decoding the images. " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+        return decodedValuesList;
+    }
+
+    private static void decode(Object[] values, ImageDecoder[] decoders) {
+        for (int i = 0; i < values.length; i++) {
+            if (decoders[i] != null) {
+                try {
+                    values[i] = decoders[i].decode(values[i]);
+                } catch (RuntimeException e) {
+                    values[i] = e;
+                }
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getDecoderService() {
+        if (decoderService == null) {
+            AtomicInteger decoderCount = new AtomicInteger();
+            decoderService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "siddhi-tensorflow-image-decoder-" +
+                        decoderCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return decoderService;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import io.siddhi.core.config.SiddhiAppContext;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.util.SiddhiConstants;
+import io.siddhi.core.util.parser.helper.QueryParserHelper;
+import io.siddhi.core.util.statistics.LatencyTracker;
+import io.siddhi.core.util.statistics.StatisticsManager;
+import io.siddhi.core.util.statistics.ThroughputTracker;
+import io.siddhi.core.util.statistics.metrics.Level;
+import io.siddhi.core.util.statistics.metrics.SiddhiStatisticsManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the timings, event counts and batch sizes of a tensorFlow:predict query with the statistics manager of the
+ * Siddhi app. Nothing is tracked unless statistics are enabled for the app.
+ */
+public class InferenceMetrics {
+    private static final String METRIC_INFIX_TENSORFLOW = "tensorFlow";
+
+    /**
+     * Stages of an inference which are timed separately
+     */
+    public enum Stage {
+        FEED, RUN, DECODE
+    }
+
+    private final SiddhiAppContext siddhiAppContext;
+    private final LatencyTracker[] latencyTrackers = new LatencyTracker[Stage.values().length];
+    private final ThroughputTracker processedTracker;
+    private final ThroughputTracker failedTracker;
+    private final ThroughputTracker droppedTracker;
+    private final ThroughputTracker batchTracker;
+    private final ThroughputTracker cacheHitTracker;
+    private final ThroughputTracker cacheMissTracker;
+    private final List<String> registeredMetricNames = new ArrayList<>();
+    private volatile Histogram batchSizeHistogram;
+    private MetricRegistry registry;
+    private String metricName;
+
+    public InferenceMetrics(SiddhiQueryContext siddhiQueryContext) {
+        siddhiAppContext = siddhiQueryContext.getSiddhiAppContext();
+        String queryName = siddhiQueryContext.getName();
+        for (Stage stage : Stage.values()) {
+            latencyTrackers[stage.ordinal()] = QueryParserHelper.createLatencyTracker(siddhiAppContext, queryName,
+                    SiddhiConstants.METRIC_INFIX_QUERIES, METRIC_INFIX_TENSORFLOW + "." + stage.name().toLowerCase());
+        }
+        processedTracker = createThroughputTracker(queryName, "events");
+        failedTracker = createThroughputTracker(queryName, "failed");
+        droppedTracker = createThroughputTracker(queryName, "dropped");
+        batchTracker = createThroughputTracker(queryName, "batches");
+        cacheHitTracker = createThroughputTracker(queryName, "cache.hits");
+        cacheMissTracker = createThroughputTracker(queryName, "cache.misses");
+
+        //the trackers of Siddhi have no histograms or gauges, so they are only added to the default metric registry
+        StatisticsManager statisticsManager = siddhiAppContext.getStatisticsManager();
+        if (statisticsManager instanceof SiddhiStatisticsManager) {
+            registry = ((SiddhiStatisticsManager) statisticsManager).getRegistry();
+            metricName = siddhiAppContext.getSiddhiContext().getStatisticsConfiguration().getMetricPrefix() +
+                    "." + SiddhiConstants.METRIC_INFIX_SIDDHI_APPS + "." + siddhiAppContext.getName() + "." +
+                    SiddhiConstants.METRIC_INFIX_SIDDHI + "." + SiddhiConstants.METRIC_INFIX_QUERIES + "." +
+                    queryName + "." + METRIC_INFIX_TENSORFLOW;
+        }
+    }
+
+    /**
+     * Registers the histogram and gauges of the query, which are removed again when the query is stopped
+     */
+    public synchronized void start() {
+        if (registry == null) {
+            return;
+        }
+        if (isIncluded(metricName + ".batch.size")) {
+            batchSizeHistogram = registry.histogram(metricName + ".batch.size");
+            registeredMetricNames.add(metricName + ".batch.size");
+        }
+        //the native memory is shared by all the queries, so these are the totals of the JVM
+        registerGauge(registry, metricName + ".native.bytes", TensorTracker::getLiveTensorBytes);
+        registerGauge(registry, metricName + ".native.tensors", TensorTracker::getLiveTensorCount);
+    }
+
+    /**
+     * Removes the histogram and gauges of the query from the registry, so that a stopped query is no longer
+     * reported and the objects read by its gauges can be collected
+     */
+    public synchronized void stop() {
+        if (registry == null) {
+            return;
+        }
+        for (String registeredMetricName : registeredMetricNames) {
+            registry.remove(registeredMetricName);
+        }
+        registeredMetricNames.clear();
+        batchSizeHistogram = null;
+    }
+
+    /**
+     * Tracks the number of inferences waiting for a lane of the inference scheduler
+     */
+    public synchronized void trackQueueDepth(InferenceScheduler.Client client) {
+        if (registry != null) {
+            registerGauge(registry, metricName + ".queue.depth", () -> (long) client.getQueueSize());
+            registerGauge(registry, metricName + ".lanes.queue.depth", InferenceScheduler::getTotalQueueDepth);
+        }
+    }
+
+    private ThroughputTracker createThroughputTracker(String queryName, String name) {
+        return QueryParserHelper.createThroughputTracker(siddhiAppContext, queryName,
+                SiddhiConstants.METRIC_INFIX_QUERIES, METRIC_INFIX_TENSORFLOW + "." + name);
+    }
+
+    private void registerGauge(MetricRegistry registry, String metricName, Gauge<Long> gauge) {
+        if (isIncluded(metricName)) {
+            registry.remove(metricName);
+            registry.register(metricName, gauge);
+            registeredMetricNames.add(metricName);
+        }
+    }
+
+    private boolean isIncluded(String metricName) {
+        for (String regex : siddhiAppContext.getIncludedMetrics()) {
+            if (metricName.matches(regex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //the level can be changed while the app is running
+    private boolean isEnabled() {
+        return Level.BASIC.compareTo(siddhiAppContext.getRootMetricsLevel()) <= 0;
+    }
+
+    public void markIn(Stage stage) {
+        LatencyTracker latencyTracker = latencyTrackers[stage.ordinal()];
+        if (latencyTracker != null && isEnabled()) {
+            latencyTracker.markIn();
+        }
+    }
+
+    public void markOut(Stage stage) {
+        LatencyTracker latencyTracker = latencyTrackers[stage.ordinal()];
+        if (latencyTracker != null && isEnabled()) {
+            latencyTracker.markOut();
+        }
+    }
+
+    /**
+     * Counts the events predicted with a single run of the model
+     */
+    public void batchProcessed(int batchSize) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (processedTracker != null) {
+            processedTracker.eventsIn(batchSize);
+        }
+        if (batchTracker != null) {
+            batchTracker.eventIn();
+        }
+        Histogram histogram = batchSizeHistogram;
+        if (histogram != null) {
+            histogram.update(batchSize);
+        }
+    }
+
+    /**
+     * Counts the events which are not emitted since the inference failed
+     */
+    public void eventsFailed(int count) {
+        if (failedTracker != null && isEnabled()) {
+            failedTracker.eventsIn(count);
+        }
+    }
+
+    /**
+     * Counts an event populated from the prediction cache without running the model
+     */
+    public void cacheHit() {
+        if (cacheHitTracker != null && isEnabled()) {
+            cacheHitTracker.eventIn();
+        }
+    }
+
+    public void cacheMissed() {
+        if (cacheMissTracker != null && isEnabled()) {
+            cacheMissTracker.eventIn();
+        }
+    }
+
+    /**
+     * Counts the events left out of a batch due to invalid inputs
+     */
+    public void eventsDropped(int count) {
+        if (droppedTracker != null && isEnabled()) {
+            droppedTracker.eventsIn(count);
+        }
+    }
+}
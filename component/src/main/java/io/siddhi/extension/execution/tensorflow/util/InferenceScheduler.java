@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.config.SiddhiAppContext;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JVM wide lanes which run the inferences of all the tensorFlow:predict queries. Each lane runs one inference at a
+ * time, and the waiting inferences are taken from the queries in proportion to their weights using stride
+ * scheduling, so that a query receiving a lot of events can not starve the others. The lanes are started with the
+ * first registered client and stopped when the last one is unregistered.
+ */
+public class InferenceScheduler {
+    private static final Logger logger = Logger.getLogger(InferenceScheduler.class);
+    private static final long STRIDE_BASE = 1L << 20;
+    private static InferenceScheduler instance;
+
+    private final Thread[] lanes;
+    private final List<Client> clients = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition taskAvailable = lock.newCondition();
+    private long globalPass;
+    private int queueDepth;
+    private boolean stopped;
+
+    private InferenceScheduler(int noOfLanes) {
+        lanes = new Thread[noOfLanes];
+        for (int i = 0; i < noOfLanes; i++) {
+            lanes[i] = new Thread(this::runLane, "siddhi-tensorflow-inference-lane-" + (i + 1));
+            lanes[i].setDaemon(true);
+            lanes[i].start();
+        }
+    }
+
+    /**
+     * Registers a client with the given weight. The lanes are created with the number given by the first client,
+     * and the number given by the later clients is ignored until all the clients are unregistered.
+     */
+    public static synchronized Client register(String name, int noOfLanes, int weight) {
+        if (instance == null) {
+            instance = new InferenceScheduler(noOfLanes);
+        } else if (instance.lanes.length != noOfLanes) {
+            logger.warn("The inferences of " + name + " run on the " + instance.lanes.length + " lanes already " +
+                    "started instead of the " + noOfLanes + " lanes configured.");
+        }
+        Client client = instance.new Client(name, weight);
+        instance.lock.lock();
+        try {
+            instance.clients.add(client);
+        } finally {
+            instance.lock.unlock();
+        }
+        return client;
+    }
+
+    public static synchronized void unregister(Client client) {
+        InferenceScheduler scheduler = client.getScheduler();
+        scheduler.lock.lock();
+        try {
+            scheduler.clients.remove(client);
+            //failing the inferences left behind so that their callers do not wait forever
+            for (FutureTask<Void> task : client.queue) {
+                task.cancel(false);
+            }
+            scheduler.queueDepth -= client.queue.size();
+            client.queue.clear();
+            client.queueSize = 0;
+            if (scheduler.clients.isEmpty()) {
+                scheduler.stopped = true;
+                scheduler.taskAvailable.signalAll();
+            }
+        } finally {
+            scheduler.lock.unlock();
+        }
+        if (scheduler == instance && scheduler.stopped) {
+            instance = null;
+        }
+    }
+
+    /**
+     * Number of inferences waiting for a lane across all the clients, or 0 when the lanes are not running
+     */
+    public static synchronized long getTotalQueueDepth() {
+        if (instance == null) {
+            return 0;
+        }
+        instance.lock.lock();
+        try {
+            return instance.queueDepth;
+        } finally {
+            instance.lock.unlock();
+        }
+    }
+
+    public static synchronized int getNoOfLanes() {
+        return instance == null ? 0 : instance.lanes.length;
+    }
+
+    private void submit(Client client, FutureTask<Void> task) {
+        lock.lock();
+        try {
+            if (stopped || !clients.contains(client)) {
+                throw new SiddhiAppRuntimeException("The inference lanes are not running for " + client.name);
+            }
+            if (client.queue.isEmpty()) {
+                //an idle client does not save up a share to use later
+                client.pass = Math.max(client.pass, globalPass);
+            }
+            client.queue.add(task);
+            client.queueSize++;
+            queueDepth++;
+            taskAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runLane() {
+        while (true) {
+            FutureTask<Void> task;
+            lock.lock();
+            try {
+                Client client;
+                while ((client = nextClient()) == null) {
+                    if (stopped) {
+                        return;
+                    }
+                    taskAvailable.awaitUninterruptibly();
+                }
+                task = client.queue.poll();
+                client.queueSize--;
+                queueDepth--;
+                globalPass = client.pass;
+                client.pass += client.stride;
+            } finally {
+                lock.unlock();
+            }
+            //the task keeps its errors for the caller
+            task.run();
+        }
+    }
+
+    //the client with waiting inferences which has used the least of its share
+    private Client nextClient() {
+        Client next = null;
+        for (Client client : clients) {
+            if (!client.queue.isEmpty() && (next == null || client.pass < next.pass)) {
+                next = client;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Queue of the inferences of a query
+     */
+    public class Client {
+        private final String name;
+        private final long stride;
+        private final ArrayDeque<FutureTask<Void>> queue = new ArrayDeque<>();
+        private volatile int queueSize;
+        private long pass;
+
+        private Client(String name, int weight) {
+            this.name = name;
+            this.stride = STRIDE_BASE / weight;
+        }
+
+        /**
+         * Queues the inference and returns without waiting for it to complete
+         */
+        public FutureTask<Void> submit(Runnable inference) {
+            String partitionKey = SiddhiAppContext.getPartitionFlowId();
+            String groupByKey = SiddhiAppContext.getGroupByFlowId();
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                //the lane carries on the partition and group by keys of the submitting thread
+                if (partitionKey != null) {
+                    SiddhiAppContext.startPartitionFlow(partitionKey);
+                }
+                if (groupByKey != null) {
+                    SiddhiAppContext.startGroupByFlow(groupByKey);
+                }
+                try {
+                    inference.run();
+                } finally {
+                    if (partitionKey != null) {
+                        SiddhiAppContext.stopPartitionFlow();
+                    }
+                    if (groupByKey != null) {
+                        SiddhiAppContext.stopGroupByFlow();
+                    }
+                }
+            }, null);
+            InferenceScheduler.this.submit(this, task);
+            return task;
+        }
+
+        /**
+         * Runs the inference on a lane, blocking the calling thread until it is complete
+         */
+        public void execute(Runnable inference) {
+            FutureTask<Void> task = submit(inference);
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        //waiting even when interrupted, as the lane may still be using the events
+                        task.get();
+                        return;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new SiddhiAppRuntimeException("Error while running the inference of " + name, cause);
+            } catch (CancellationException e) {
+                //cancelled when the client is unregistered
+                throw new SiddhiAppRuntimeException("The inference of " + name + " was discarded as the client " +
+                        "was unregistered", e);
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Number of inferences of this client waiting for a lane
+         */
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        private InferenceScheduler getScheduler() {
+            return InferenceScheduler.this;
+        }
+    }
+}
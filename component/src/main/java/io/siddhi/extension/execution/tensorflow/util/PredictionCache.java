@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.extension.execution.tensorflow.model.ModelVersion;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded least recently used cache of the outputs predicted for the input values of an event. Entries predicted
+ * by another version of the model or older than the time to live are treated as missing. Array and tensor outputs
+ * are copied in and out of the cache, so the events hitting an entry do not share them.
+ */
+public class PredictionCache {
+    private final long timeToLive;
+    private final LongSupplier clock;
+    private final EntryMap entries;
+
+    /**
+     * @param maxSize    maximum number of entries kept
+     * @param timeToLive time in milliseconds an entry is valid for, or -1 to keep it until evicted
+     * @param clock      current time in milliseconds
+     */
+    public PredictionCache(int maxSize, long timeToLive, LongSupplier clock) {
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.entries = new EntryMap(maxSize);
+    }
+
+    public synchronized Object[] get(Object[] inputValues, ModelVersion modelVersion) {
+        Key key = new Key(inputValues);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.modelVersion != modelVersion ||
+                (timeToLive > 0 && clock.getAsLong() - entry.timestamp >= timeToLive)) {
+            entries.remove(key);
+            return null;
+        }
+        return copyAll(entry.outputs);
+    }
+
+    public synchronized void put(Object[] inputValues, ModelVersion modelVersion, Object[] outputs) {
+        //array inputs and outputs can be modified downstream after the event is sent, so the entry holds copies
+        entries.put(new Key(copyAll(inputValues)), new Entry(modelVersion, copyAll(outputs),
+                timeToLive > 0 ? clock.getAsLong() : 0));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static Object[] copyAll(Object[] values) {
+        Object[] copy = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            copy[i] = copy(values[i]);
+        }
+        return copy;
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof TensorValue) {
+            TensorValue tensorValue = (TensorValue) value;
+            return new TensorValue(tensorValue.getShape().clone(), tensorValue.getDataType(),
+                    copy(tensorValue.getData()));
+        }
+        if (value == null || !value.getClass().isArray()) {
+            return value;
+        }
+        int length = Array.getLength(value);
+        if (value instanceof Object[]) {
+            Object[] copy = ((Object[]) value).clone();
+            for (int i = 0; i < length; i++) {
+                copy[i] = copy(copy[i]);
+            }
+            return copy;
+        }
+        Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+        System.arraycopy(value, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static class Key {
+        private final Object[] values;
+        private final int hashCode;
+
+        private Key(Object[] values) {
+            this.values = values;
+            this.hashCode = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && hashCode == ((Key) other).hashCode &&
+                    Arrays.deepEquals(values, ((Key) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Entries in the order they were last used, evicting the least recently used one once the maximum size is exceeded
+     */
+    private static class EntryMap extends LinkedHashMap<Key, Entry> {
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+        private EntryMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    private static class Entry {
+        private final ModelVersion modelVersion;
+        private final Object[] outputs;
+        private final long timestamp;
+
+        private Entry(ModelVersion modelVersion, Object[] outputs, long timestamp) {
+            this.modelVersion = modelVersion;
+            this.outputs = outputs;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional settings of a TensorFlow SP query given as constant 'key:value' strings after the attributes
+ */
+public class QueryOptions {
+    private final Map<String, String> options;
+
+    private QueryOptions(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static QueryOptions extractOptions(ExpressionExecutor[] attributeExpressionExecutors,
+                                              List<String> supportedOptions) {
+        Map<String, String> options = new LinkedHashMap<>();
+        //attributes are always variables, so the options are the trailing 'key:value' string constants
+        for (int i = attributeExpressionExecutors.length - 1; i > 0; i--) {
+            ExpressionExecutor executor = attributeExpressionExecutors[i];
+            if (!(executor instanceof ConstantExpressionExecutor) ||
+                    executor.getReturnType() != Attribute.Type.STRING) {
+                break;
+            }
+            String option = (String) ((ConstantExpressionExecutor) executor).getValue();
+            int separatorIndex = option.indexOf(':');
+            if (separatorIndex < 0) {
+                break;
+            }
+            String key = option.substring(0, separatorIndex).trim();
+            String value = option.substring(separatorIndex + 1).trim();
+            if (!supportedOptions.contains(key)) {
+                throw new SiddhiAppCreationException("The query parameter of index " + (i + 1) + " is an unknown " +
+                        "option '" + key + "'. Supported options are " + supportedOptions);
+            }
+            if (options.put(key, value) != null) {
+                throw new SiddhiAppCreationException("The option '" + key + "' is given more than once.");
+            }
+        }
+        return new QueryOptions(options);
+    }
+
+    /**
+     * Returns the options of the given keys where the ones not given in the query are read from the extension
+     * configuration
+     */
+    public QueryOptions withDefaults(ConfigReader configReader, List<String> keys) {
+        Map<String, String> merged = new LinkedHashMap<>();
+        for (String key : keys) {
+            String value = options.containsKey(key) ? options.get(key) : configReader.readConfig(key, null);
+            if (value != null) {
+                merged.put(key, value.trim());
+            }
+        }
+        return new QueryOptions(merged);
+    }
+
+    public int size() {
+        return options.size();
+    }
+
+    public boolean contains(String key) {
+        return options.containsKey(key);
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    //comma separated values
+    public String[] getStringArray(String key, String[] defaultValue) {
+        String value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        String[] values = value.split(",");
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values[i].trim();
+            if (values[i].isEmpty()) {
+                throw new SiddhiAppCreationException("The option '" + key + "' should be a comma separated list " +
+                        "of non empty values but found '" + value + "'.");
+            }
+        }
+        return values;
+    }
+
+    //comma separated integers
+    public int[] getIntArray(String key, int[] defaultValue) {
+        String[] values = getStringArray(key, null);
+        if (values == null) {
+            return defaultValue;
+        }
+        int[] intValues = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            try {
+                intValues[i] = Integer.parseInt(values[i]);
+            } catch (NumberFormatException e) {
+                throw new SiddhiAppCreationException("The option '" + key + "' should be a comma separated list " +
+                        "of integers but found '" + options.get(key) + "'.", e);
+            }
+        }
+        return intValues;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        } else if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new SiddhiAppCreationException("The option '" + key + "' should be either true or false but found '" +
+                value + "'.");
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new SiddhiAppCreationException("The option '" + key + "' should be an integer but found '" +
+                    value + "'.", e);
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new SiddhiAppCreationException("The option '" + key + "' should be a long but found '" +
+                    value + "'.", e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The state tensors of a recurrent model for a key, such as the hidden and cell states, which are fed to the state
+ * inputs and replaced by the state outputs of each inference. The values are kept in direct buffers so that they are
+ * copied between the Tensors without going through the heap. They start as zeros.
+ */
+public class RecurrentState {
+    private final String[] inputNames;
+    private final DataType[] dataTypes;
+    private final long[][] shapes;
+    private final ByteBuffer[] values;
+    private boolean updated;
+
+    private RecurrentState(String[] inputNames, DataType[] dataTypes, long[][] shapes) {
+        this.inputNames = inputNames;
+        this.dataTypes = dataTypes;
+        this.shapes = shapes;
+        this.values = new ByteBuffer[shapes.length];
+        for (int i = 0; i < shapes.length; i++) {
+            long size = getByteSize(dataTypes[i]);
+            for (long dim : shapes[i]) {
+                size *= dim;
+            }
+            values[i] = ByteBuffer.allocateDirect((int) size).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Creates the zero state of the state inputs of a model. The state of a single sequence is kept, so the shapes
+     * should be fixed other than the batch dimension, which is given the size 1.
+     *
+     * @param inputNames  names of the state input nodes
+     * @param inputInfos  signature def entries of the state input nodes
+     * @param outputInfos signature def entries of the state output nodes fed back to them
+     * @return the zero state
+     */
+    public static RecurrentState create(String[] inputNames, TensorInfo[] inputInfos, TensorInfo[] outputInfos) {
+        DataType[] dataTypes = new DataType[inputNames.length];
+        long[][] shapes = new long[inputNames.length][];
+        for (int i = 0; i < inputNames.length; i++) {
+            if (inputInfos[i].getDtype() != outputInfos[i].getDtype()) {
+                throw new SiddhiAppCreationException("State input " + inputNames[i] + " is of type " +
+                        inputInfos[i].getDtype() + " but the output fed back to it is of type " +
+                        outputInfos[i].getDtype());
+            }
+            switch (inputInfos[i].getDtype()) {
+                case DT_FLOAT:
+                    dataTypes[i] = DataType.FLOAT;
+                    break;
+                case DT_DOUBLE:
+                    dataTypes[i] = DataType.DOUBLE;
+                    break;
+                case DT_INT32:
+                    dataTypes[i] = DataType.INT32;
+                    break;
+                case DT_INT64:
+                    dataTypes[i] = DataType.INT64;
+                    break;
+                default:
+                    throw new SiddhiAppCreationException("State input " + inputNames[i] + " should be of type " +
+                            "float, double, int32 or int64 but the signature def has " + inputInfos[i].getDtype());
+            }
+            TensorShapeProto tensorShape = inputInfos[i].getTensorShape();
+            shapes[i] = new long[tensorShape.getUnknownRank() ? 0 : tensorShape.getDimCount()];
+            for (int j = 0; j < shapes[i].length; j++) {
+                long size = tensorShape.getDim(j).getSize();
+                shapes[i][j] = j == 0 && size == -1 ? 1 : size;
+            }
+            if (tensorShape.getUnknownRank() || Arrays.stream(shapes[i]).anyMatch(size -> size < 0)) {
+                throw new SiddhiAppCreationException("State input " + inputNames[i] + " should have a fixed " +
+                        "shape other than the batch dimension but the signature def has " +
+                        (tensorShape.getUnknownRank() ? "an unknown shape" : tensorShape.getDimList()));
+            }
+        }
+        return new RecurrentState(inputNames, dataTypes, shapes);
+    }
+
+    /**
+     * Creates a zero state with the same shapes, for another key.
+     *
+     * @return the zero state
+     */
+    public RecurrentState newState() {
+        return new RecurrentState(inputNames, dataTypes, shapes);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public synchronized boolean isUpdated() {
+        return updated;
+    }
+
+    /**
+     * Creates the Tensor of the current value of a state input.
+     *
+     * @param index index of the state input
+     * @return the state as a Tensor
+     */
+    public synchronized Tensor createTensor(int index) {
+        ByteBuffer buffer = values[index].duplicate().order(ByteOrder.nativeOrder());
+        buffer.clear();
+        return TensorTracker.track(Tensor.create(getType(dataTypes[index]), shapes[index], buffer));
+    }
+
+    /**
+     * Replaces the value of a state input with the state output of an inference.
+     *
+     * @param index  index of the state input
+     * @param output the state output fed back to the input
+     */
+    public synchronized void update(int index, Tensor output) {
+        if (output.dataType() != dataTypes[index] || !Arrays.equals(output.shape(), shapes[index])) {
+            throw new SiddhiAppRuntimeException("The output fed back to the state input " + inputNames[index] +
+                    " should be a " + dataTypes[index] + " tensor of the shape " + Arrays.toString(shapes[index]) +
+                    " but the model gave a " + output.dataType() + " tensor of the shape " +
+                    Arrays.toString(output.shape()));
+        }
+        values[index].clear();
+        output.writeTo(values[index]);
+        updated = true;
+    }
+
+    private static int getByteSize(DataType dataType) {
+        return dataType == DataType.FLOAT || dataType == DataType.INT32 ? Integer.BYTES : Long.BYTES;
+    }
+
+    private static Class<?> getType(DataType dataType) {
+        switch (dataType) {
+            case FLOAT:
+                return Float.class;
+            case DOUBLE:
+                return Double.class;
+            case INT32:
+                return Integer.class;
+            default:
+                return Long.class;
+        }
+    }
+
+    //the direct buffers are copied to the heap to be serialized
+    public synchronized byte[][] snapshot() {
+        byte[][] snapshot = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            ByteBuffer buffer = values[i].duplicate();
+            buffer.clear();
+            snapshot[i] = new byte[buffer.capacity()];
+            buffer.get(snapshot[i]);
+        }
+        return snapshot;
+    }
+
+    public synchronized void restore(byte[][] snapshot) {
+        for (int i = 0; i < values.length; i++) {
+            values[i].clear();
+            values[i].put(snapshot[i]);
+        }
+        updated = true;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Keeps the last readings of a sequence input in a ring buffer, from which the [length, features] sequence is
+ * written into a Tensor oldest first. A reading is a scalar when the input has a single feature, or otherwise a
+ * float[], double[], int[] or long[] holding its features.
+ */
+public class SequenceWindow {
+    private final DataType dataType;
+    private final int length;
+    private final int features;
+    private final long[] elementShape;
+    private final long[] tensorShape;
+    private Object values;
+    private int next;
+    private int count;
+
+    private SequenceWindow(DataType dataType, int length, int features, long[] elementShape, long[] tensorShape) {
+        this.dataType = dataType;
+        this.length = length;
+        this.features = features;
+        this.elementShape = elementShape;
+        this.tensorShape = tensorShape;
+        switch (dataType) {
+            case FLOAT:
+                values = new float[length * features];
+                break;
+            case DOUBLE:
+                values = new double[length * features];
+                break;
+            case INT32:
+                values = new int[length * features];
+                break;
+            default:
+                values = new long[length * features];
+        }
+    }
+
+    /**
+     * Creates an empty window of a sequence input from its shape in the signature def, which should be
+     * [length, features] or [length] after the batch dimension.
+     *
+     * @param inputName  name of the input node
+     * @param tensorInfo signature def entry of the input node
+     * @param length     number of readings in the sequence, or 0 to take it from the shape
+     * @return the empty window
+     */
+    public static SequenceWindow create(String inputName, TensorInfo tensorInfo, int length) {
+        DataType dataType;
+        switch (tensorInfo.getDtype()) {
+            case DT_FLOAT:
+                dataType = DataType.FLOAT;
+                break;
+            case DT_DOUBLE:
+                dataType = DataType.DOUBLE;
+                break;
+            case DT_INT32:
+                dataType = DataType.INT32;
+                break;
+            case DT_INT64:
+                dataType = DataType.INT64;
+                break;
+            default:
+                throw new SiddhiAppCreationException("Sequence input " + inputName + " should be of type float, " +
+                        "double, int32 or int64 but the signature def has " + tensorInfo.getDtype());
+        }
+        TensorShapeProto tensorShape = tensorInfo.getTensorShape();
+        boolean batched = CoreUtils.hasBatchDimension(tensorInfo);
+        long[] dims;
+        if (tensorShape.getUnknownRank()) {
+            dims = new long[]{-1};
+        } else {
+            dims = new long[tensorShape.getDimCount() - (batched ? 1 : 0)];
+            for (int i = 0; i < dims.length; i++) {
+                dims[i] = tensorShape.getDim(i + (batched ? 1 : 0)).getSize();
+            }
+        }
+        if (dims.length < 1 || dims.length > 2) {
+            throw new SiddhiAppCreationException("Sequence input " + inputName + " should have the shape " +
+                    "[length, features] or [length] after the batch dimension but the signature def has " +
+                    Arrays.toString(dims));
+        }
+        if (dims[0] == -1) {
+            if (length <= 0) {
+                throw new SiddhiAppCreationException("The length of the sequence has to be given for the " +
+                        "sequence input " + inputName + " since it is not fixed in the signature def");
+            }
+            dims[0] = length;
+        } else if (length > 0 && length != dims[0]) {
+            throw new SiddhiAppCreationException("Sequence input " + inputName + " has the length " + dims[0] +
+                    " in the signature def but " + length + " is given");
+        }
+        if (dims.length == 2 && dims[1] <= 0) {
+            throw new SiddhiAppCreationException("Sequence input " + inputName + " should have a fixed number of " +
+                    "features in the signature def");
+        }
+
+        long[] shape;
+        if (batched) {
+            shape = new long[dims.length + 1];
+            shape[0] = 1;
+            System.arraycopy(dims, 0, shape, 1, dims.length);
+        } else {
+            shape = dims;
+        }
+        return new SequenceWindow(dataType, (int) dims[0], dims.length == 2 ? (int) dims[1] : 1, dims, shape);
+    }
+
+    /**
+     * Creates an empty window with the same shape, for another key.
+     *
+     * @return the empty window
+     */
+    public SequenceWindow newWindow() {
+        return new SequenceWindow(dataType, length, features, elementShape, tensorShape);
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public long[] getElementShape() {
+        return elementShape;
+    }
+
+    public int getElementSize() {
+        return length * features;
+    }
+
+    public synchronized boolean isFull() {
+        return count == length;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Adds the readings of an event to the windows of all its sequence inputs, or to none of them when one of the
+     * readings is invalid, so that the windows of a key always hold the same events.
+     *
+     * @param windows  windows of the sequence inputs of the key by input index, null for the other inputs
+     * @param readings readings of the event by input index
+     * @return whether all the windows are full
+     */
+    public static boolean addAll(SequenceWindow[] windows, Object[] readings) {
+        synchronized (windows) {
+            for (int i = 0; i < windows.length; i++) {
+                if (windows[i] != null) {
+                    windows[i].validate(readings[i]);
+                }
+            }
+            boolean full = true;
+            for (int i = 0; i < windows.length; i++) {
+                if (windows[i] != null) {
+                    windows[i].add(readings[i]);
+                    full &= windows[i].isFull();
+                }
+            }
+            return full;
+        }
+    }
+
+    private void validate(Object reading) {
+        if (!(reading instanceof Number && features == 1) && !(reading != null &&
+                reading.getClass() == values.getClass() && Array.getLength(reading) == features)) {
+            throw new SiddhiAppRuntimeException("A reading of the sequence should be " + (features == 1 ?
+                    "a number or " : "") + "an array of " + features + " " + dataType + " features but given " +
+                    (reading == null ? "null" : reading.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Adds the reading of an event in place of the oldest one.
+     *
+     * @param reading scalar or array of the features of the reading
+     */
+    public synchronized void add(Object reading) {
+        validate(reading);
+        int offset = next * features;
+        if (reading instanceof Number) {
+            Number number = (Number) reading;
+            switch (dataType) {
+                case FLOAT:
+                    ((float[]) values)[offset] = number.floatValue();
+                    break;
+                case DOUBLE:
+                    ((double[]) values)[offset] = number.doubleValue();
+                    break;
+                case INT32:
+                    ((int[]) values)[offset] = number.intValue();
+                    break;
+                default:
+                    ((long[]) values)[offset] = number.longValue();
+            }
+        } else {
+            System.arraycopy(reading, 0, values, offset, features);
+        }
+        next = (next + 1) % length;
+        if (count < length) {
+            count++;
+        }
+    }
+
+    /**
+     * Writes the readings oldest first from the position of the buffer and moves the position past them.
+     *
+     * @param buffer native ordered buffer with enough space for the sequence
+     */
+    public synchronized void write(ByteBuffer buffer) {
+        //once full, the oldest reading is the one to be replaced next
+        int oldest = next * features;
+        int position = buffer.position();
+        int size = length * features;
+        switch (dataType) {
+            case FLOAT:
+                buffer.asFloatBuffer().put((float[]) values, oldest, size - oldest).put((float[]) values, 0, oldest);
+                buffer.position(position + size * Float.BYTES);
+                break;
+            case DOUBLE:
+                buffer.asDoubleBuffer().put((double[]) values, oldest, size - oldest)
+                        .put((double[]) values, 0, oldest);
+                buffer.position(position + size * Double.BYTES);
+                break;
+            case INT32:
+                buffer.asIntBuffer().put((int[]) values, oldest, size - oldest).put((int[]) values, 0, oldest);
+                buffer.position(position + size * Integer.BYTES);
+                break;
+            default:
+                buffer.asLongBuffer().put((long[]) values, oldest, size - oldest).put((long[]) values, 0, oldest);
+                buffer.position(position + size * Long.BYTES);
+        }
+    }
+
+    /**
+     * Adds the reading and creates the Tensor of the sequence, with a leading batch dimension of 1 when the input
+     * has one.
+     *
+     * @param reading scalar or array of the features of the reading
+     * @return the sequence as a Tensor, or null until the window is full
+     */
+    public synchronized Tensor addAndCreateTensor(Object reading) {
+        add(reading);
+        return createTensor();
+    }
+
+    /**
+     * Creates the Tensor of the sequence, with a leading batch dimension of 1 when the input has one.
+     *
+     * @return the sequence as a Tensor, or null until the window is full
+     */
+    public synchronized Tensor createTensor() {
+        if (!isFull()) {
+            return null;
+        }
+        int byteSize = dataType == DataType.FLOAT || dataType == DataType.INT32 ? Integer.BYTES : Long.BYTES;
+        ByteBuffer buffer = CoreUtils.getInputBuffer(getElementSize() * byteSize);
+        write(buffer);
+        buffer.flip();
+        return TensorTracker.track(Tensor.create(getType(), tensorShape, buffer));
+    }
+
+    private Class<?> getType() {
+        switch (dataType) {
+            case FLOAT:
+                return Float.class;
+            case DOUBLE:
+                return Double.class;
+            case INT32:
+                return Integer.class;
+            default:
+                return Long.class;
+        }
+    }
+
+    public synchronized Object[] snapshot() {
+        //copying the readings since the window keeps changing after the snapshot is taken
+        Object valuesCopy = Array.newInstance(values.getClass().getComponentType(), length * features);
+        System.arraycopy(values, 0, valuesCopy, 0, length * features);
+        return new Object[]{valuesCopy, next, count};
+    }
+
+    public synchronized void restore(Object[] snapshot) {
+        values = snapshot[0];
+        next = (Integer) snapshot[1];
+        count = (Integer) snapshot[2];
+    }
+}
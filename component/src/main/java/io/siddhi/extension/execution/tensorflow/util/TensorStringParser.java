@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Single pass parser for arrays encoded as Strings such as 'float:[[1.0, 2.0]]'. The shape is found and the numbers
+ * are decoded straight into primitive buffers which are reused across calls, so an instance should not be shared
+ * between threads.
+ */
+public class TensorStringParser {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_EXACT_DIGITS = 18;
+    private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+    private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+    private static final double[] DOUBLE_POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f,
+            1e10f};
+    //the bits dropped when a double is rounded to a float, and their value when the double is a float midpoint
+    private static final long FLOAT_ROUNDING_BITS = (1L << 29) - 1;
+    private static final long FLOAT_MIDPOINT_BITS = 1L << 28;
+
+    private String arrayAsString;
+    private int separatorIndex;
+    private DataType dataType;
+    private long[] shape = new long[0];
+    private int[] elementCounts = new int[4];
+    private int size;
+    private float[] floatValues;
+    private int[] intValues;
+    private double[] doubleValues;
+    private long[] longValues;
+
+    //result of scanning a decimal number
+    private long scannedMantissa;
+    private int scannedExponent;
+    private boolean scannedNegative;
+
+    public void parse(String arrayAsString) {
+        this.arrayAsString = arrayAsString;
+        separatorIndex = arrayAsString.lastIndexOf(':');
+        dataType = parseDataType();
+        int length = arrayAsString.length();
+
+        //number of leading brackets gives the number of dimensions
+        int noOfDims = 0;
+        for (int i = separatorIndex + 1; i < length; i++) {
+            char c = arrayAsString.charAt(i);
+            if (c == '[') {
+                noOfDims++;
+            } else if (c != ' ') {
+                break;
+            }
+        }
+        if (shape.length != noOfDims) {
+            shape = new long[noOfDims];
+        } else {
+            Arrays.fill(shape, 0);
+        }
+        if (elementCounts.length < noOfDims) {
+            elementCounts = new int[noOfDims];
+        }
+
+        size = 0;
+        int depth = 0;
+        int i = separatorIndex + 1;
+        while (i < length) {
+            char c = arrayAsString.charAt(i);
+            if (c == '[') {
+                if (depth == noOfDims) {
+                    throw new SiddhiAppRuntimeException("Array size is inconsistent");
+                }
+                elementCounts[depth++] = 0;
+                i++;
+            } else if (c == ',') {
+                if (depth == 0) {
+                    throw new SiddhiAppRuntimeException("Array size is inconsistent");
+                }
+                elementCounts[depth - 1]++;
+                i++;
+            } else if (c == ']') {
+                if (depth == 0) {
+                    throw new SiddhiAppRuntimeException("Array size is inconsistent");
+                }
+                depth--;
+                int dimSize = elementCounts[depth] + 1;
+                if (shape[depth] == 0) {
+                    shape[depth] = dimSize;
+                } else if (shape[depth] != dimSize) {
+                    throw new SiddhiAppRuntimeException("Array size is inconsistent");
+                }
+                i++;
+            } else if (c == ' ') {
+                i++;
+            } else {
+                int end = i + 1;
+                while (end < length) {
+                    char next = arrayAsString.charAt(end);
+                    if (next == ',' || next == ']' || next == '[' || next == ' ') {
+                        break;
+                    }
+                    end++;
+                }
+                addElement(i, end);
+                i = end;
+            }
+        }
+        if (depth != 0) {
+            throw new SiddhiAppRuntimeException("Array size is inconsistent");
+        }
+
+        if (dataType == null) {
+            String type = separatorIndex < 0 ? "" :
+                    arrayAsString.substring(0, separatorIndex).replaceAll("\\s", "");
+            if (size == 1) {
+                throw new SiddhiAppRuntimeException("Number encoded as String should have one of int, long, float, " +
+                        "double as prefix but given " + type);
+            }
+            throw new SiddhiAppRuntimeException("Array encoded as String should have one of int, long, float, " +
+                    "double as prefix but given " + type);
+        }
+        long noOfElements = 1;
+        for (long dimSize : shape) {
+            noOfElements *= dimSize;
+        }
+        if (noOfElements != size) {
+            throw new SiddhiAppRuntimeException("Array size is inconsistent");
+        }
+        this.arrayAsString = null;
+    }
+
+    public Tensor createTensor() {
+        //handling scalars
+        if (size == 1) {
+            switch (dataType) {
+                case FLOAT:
+                    return Tensor.create(floatValues[0]);
+                case INT32:
+                    return Tensor.create(intValues[0]);
+                case DOUBLE:
+                    return Tensor.create(doubleValues[0]);
+                default:
+                    return Tensor.create(longValues[0]);
+            }
+        }
+
+        //handling non-scalars
+        switch (dataType) {
+            case FLOAT:
+                return Tensor.create(shape, FloatBuffer.wrap(floatValues, 0, size));
+            case INT32:
+                return Tensor.create(shape, IntBuffer.wrap(intValues, 0, size));
+            case DOUBLE:
+                return Tensor.create(shape, DoubleBuffer.wrap(doubleValues, 0, size));
+            default:
+                return Tensor.create(shape, LongBuffer.wrap(longValues, 0, size));
+        }
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public long[] getShape() {
+        return shape;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public float[] getFloatValues() {
+        return floatValues;
+    }
+
+    public int[] getIntValues() {
+        return intValues;
+    }
+
+    public double[] getDoubleValues() {
+        return doubleValues;
+    }
+
+    public long[] getLongValues() {
+        return longValues;
+    }
+
+    private DataType parseDataType() {
+        if (separatorIndex < 0) {
+            return null;
+        } else if (prefixEquals("float")) {
+            return DataType.FLOAT;
+        } else if (prefixEquals("int")) {
+            return DataType.INT32;
+        } else if (prefixEquals("double")) {
+            return DataType.DOUBLE;
+        } else if (prefixEquals("long")) {
+            return DataType.INT64;
+        }
+        return null;
+    }
+
+    //compares the prefix before the separator ignoring any whitespace within it
+    private boolean prefixEquals(String type) {
+        int index = 0;
+        for (int i = 0; i < separatorIndex; i++) {
+            char c = arrayAsString.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (index == type.length() || type.charAt(index) != c) {
+                return false;
+            }
+            index++;
+        }
+        return index == type.length();
+    }
+
+    private void addElement(int start, int end) {
+        if (dataType == null) {
+            size++;
+            return;
+        }
+        switch (dataType) {
+            case FLOAT:
+                floatValues = ensureCapacity(floatValues, size + 1);
+                floatValues[size++] = parseFloat(start, end);
+                break;
+            case INT32:
+                intValues = ensureCapacity(intValues, size + 1);
+                intValues[size++] = parseInt(start, end);
+                break;
+            case DOUBLE:
+                doubleValues = ensureCapacity(doubleValues, size + 1);
+                doubleValues[size++] = parseDouble(start, end);
+                break;
+            default:
+                longValues = ensureCapacity(longValues, size + 1);
+                longValues[size++] = parseLong(start, end);
+        }
+    }
+
+    private float parseFloat(int start, int end) {
+        if (scanDecimal(start, end)) {
+            if (scannedMantissa <= MAX_EXACT_FLOAT_MANTISSA &&
+                    Math.abs(scannedExponent) < FLOAT_POWERS_OF_TEN.length) {
+                //both operands are exact floats, so a single operation gives the correctly rounded result
+                float value = scannedMantissa;
+                value = scannedExponent < 0 ? value / FLOAT_POWERS_OF_TEN[-scannedExponent] :
+                        value * FLOAT_POWERS_OF_TEN[scannedExponent];
+                return scannedNegative ? -value : value;
+            }
+            if (scannedMantissa <= MAX_EXACT_DOUBLE_MANTISSA &&
+                    Math.abs(scannedExponent) < DOUBLE_POWERS_OF_TEN.length) {
+                double value = toDouble();
+                //a double sitting exactly on a float midpoint could round differently than the decimal itself
+                if ((Double.doubleToRawLongBits(value) & FLOAT_ROUNDING_BITS) != FLOAT_MIDPOINT_BITS) {
+                    return (float) value;
+                }
+            }
+        }
+        return Float.parseFloat(arrayAsString.substring(start, end));
+    }
+
+    private double parseDouble(int start, int end) {
+        if (scanDecimal(start, end) && scannedMantissa <= MAX_EXACT_DOUBLE_MANTISSA &&
+                Math.abs(scannedExponent) < DOUBLE_POWERS_OF_TEN.length) {
+            return toDouble();
+        }
+        return Double.parseDouble(arrayAsString.substring(start, end));
+    }
+
+    private double toDouble() {
+        //both operands are exact doubles, so a single operation gives the correctly rounded result
+        double value = scannedMantissa;
+        value = scannedExponent < 0 ? value / DOUBLE_POWERS_OF_TEN[-scannedExponent] :
+                value * DOUBLE_POWERS_OF_TEN[scannedExponent];
+        return scannedNegative ? -value : value;
+    }
+
+    //scans a plain decimal number into a mantissa and a power of ten, returns false if it can not be done exactly
+    private boolean scanDecimal(int start, int end) {
+        int i = start;
+        char c = arrayAsString.charAt(i);
+        scannedNegative = c == '-';
+        if (c == '-' || c == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+        for (; i < end; i++) {
+            c = arrayAsString.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    if (++digits > MAX_EXACT_DIGITS) {
+                        return false;
+                    }
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (seenDot) {
+                    exponent--;
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else if ((c == 'e' || c == 'E') && seenDigit) {
+                int exponentValue = parseExponent(i + 1, end);
+                if (exponentValue == Integer.MIN_VALUE) {
+                    return false;
+                }
+                exponent += exponentValue;
+                i = end;
+            } else {
+                return false;
+            }
+        }
+        scannedMantissa = mantissa;
+        scannedExponent = exponent;
+        return seenDigit;
+    }
+
+    private int parseExponent(int start, int end) {
+        int i = start;
+        if (i == end) {
+            return Integer.MIN_VALUE;
+        }
+        char c = arrayAsString.charAt(i);
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            i++;
+        }
+        if (i == end || end - i > 4) {
+            return Integer.MIN_VALUE;
+        }
+        int exponent = 0;
+        for (; i < end; i++) {
+            c = arrayAsString.charAt(i);
+            if (c < '0' || c > '9') {
+                return Integer.MIN_VALUE;
+            }
+            exponent = exponent * 10 + (c - '0');
+        }
+        return negative ? -exponent : exponent;
+    }
+
+    private int parseInt(int start, int end) {
+        long value = parseLong(start, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            //let the JDK report the overflow
+            return Integer.parseInt(arrayAsString.substring(start, end));
+        }
+        return (int) value;
+    }
+
+    private long parseLong(int start, int end) {
+        int i = start;
+        char c = arrayAsString.charAt(i);
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            i++;
+        }
+        if (i == end || end - i > MAX_EXACT_DIGITS) {
+            return Long.parseLong(arrayAsString.substring(start, end));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            c = arrayAsString.charAt(i);
+            if (c < '0' || c > '9') {
+                //let the JDK report the invalid number
+                return Long.parseLong(arrayAsString.substring(start, end));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static float[] ensureCapacity(float[] array, int required) {
+        if (array == null) {
+            return new float[Math.max(required, INITIAL_CAPACITY)];
+        }
+        return array.length >= required ? array : Arrays.copyOf(array, Math.max(required, array.length * 2));
+    }
+
+    private static int[] ensureCapacity(int[] array, int required) {
+        if (array == null) {
+            return new int[Math.max(required, INITIAL_CAPACITY)];
+        }
+        return array.length >= required ? array : Arrays.copyOf(array, Math.max(required, array.length * 2));
+    }
+
+    private static double[] ensureCapacity(double[] array, int required) {
+        if (array == null) {
+            return new double[Math.max(required, INITIAL_CAPACITY)];
+        }
+        return array.length >= required ? array : Arrays.copyOf(array, Math.max(required, array.length * 2));
+    }
+
+    private static long[] ensureCapacity(long[] array, int required) {
+        if (array == null) {
+            return new long[Math.max(required, INITIAL_CAPACITY)];
+        }
+        return array.length >= required ? array : Arrays.copyOf(array, Math.max(required, array.length * 2));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import org.tensorflow.Tensor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps count of the Tensors created by the extension which are still holding native memory. The tracked Tensors
+ * should be closed through the tracker, which counts each of them once even if it is closed again.
+ */
+public class TensorTracker {
+    //Tensors are compared by identity, mapped to their size as it can not be read once closed
+    private static final Map<Tensor, Long> LIVE_TENSORS = new ConcurrentHashMap<>();
+    private static final LongAdder LIVE_BYTES = new LongAdder();
+
+    private TensorTracker() {
+    }
+
+    public static Tensor track(Tensor tensor) {
+        long numBytes = tensor.numBytes();
+        if (LIVE_TENSORS.putIfAbsent(tensor, numBytes) == null) {
+            LIVE_BYTES.add(numBytes);
+        }
+        return tensor;
+    }
+
+    public static List<Tensor> trackAll(List<Tensor> tensors) {
+        for (Tensor tensor : tensors) {
+            track(tensor);
+        }
+        return tensors;
+    }
+
+    public static void close(Tensor tensor) {
+        if (tensor != null) {
+            Long numBytes = LIVE_TENSORS.remove(tensor);
+            if (numBytes != null) {
+                LIVE_BYTES.add(-numBytes);
+            }
+            tensor.close();
+        }
+    }
+
+    //closes all the tensors even if closing one of them fails
+    public static void closeAll(List<Tensor> tensors) {
+        if (tensors == null) {
+            return;
+        }
+        RuntimeException exception = null;
+        for (Tensor tensor : tensors) {
+            try {
+                close(tensor);
+            } catch (RuntimeException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    public static long getLiveTensorCount() {
+        return LIVE_TENSORS.size();
+    }
+
+    public static long getLiveTensorBytes() {
+        return LIVE_BYTES.sum();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import org.tensorflow.DataType;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The shape, data type and flat values of an output tensor of an inference. The values are held in row major order in
+ * a float[], double[], int[], long[], byte[] (for UINT8), boolean[] or String[] based on the data type.
+ */
+public class TensorValue {
+    private final long[] shape;
+    private final DataType dataType;
+    private final Object data;
+
+    public TensorValue(long[] shape, DataType dataType, Object data) {
+        this.shape = shape;
+        this.dataType = dataType;
+        this.data = data;
+    }
+
+    public long[] getShape() {
+        return shape;
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TensorValue)) {
+            return false;
+        }
+        TensorValue that = (TensorValue) o;
+        return Arrays.equals(shape, that.shape) && dataType == that.dataType &&
+                Objects.deepEquals(data, that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(shape) + Objects.hashCode(dataType)) +
+                Arrays.deepHashCode(new Object[]{data});
+    }
+
+    @Override
+    public String toString() {
+        return dataType + Arrays.toString(shape);
+    }
+}
@@ -18,23 +18,52 @@
 
 package io.siddhi.extension.execution.tensorflow;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.io.Resources;
 import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.config.StatisticsConfiguration;
 import io.siddhi.core.event.Event;
 import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.query.output.callback.QueryCallback;
 import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.config.InMemoryConfigManager;
+import io.siddhi.core.util.persistence.InMemoryPersistenceStore;
+import io.siddhi.core.util.statistics.StatisticsManager;
+import io.siddhi.core.util.statistics.metrics.SiddhiMetricsFactory;
+import io.siddhi.core.util.statistics.metrics.SiddhiStatisticsManager;
+import io.siddhi.extension.execution.tensorflow.model.ModelRegistry;
+import io.siddhi.extension.execution.tensorflow.model.SessionConfig;
+import io.siddhi.extension.execution.tensorflow.util.InferenceScheduler;
+import io.siddhi.extension.execution.tensorflow.util.TensorTracker;
+import io.siddhi.extension.execution.tensorflow.util.TensorValue;
+import io.siddhi.query.api.annotation.Element;
+import io.siddhi.query.api.definition.Attribute;
+import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.WriterAppender;
 import org.testng.Assert;
 import org.testng.AssertJUnit;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.imageio.ImageIO;
 
 public class TensorFlowExtensionTest {
@@ -439,4 +468,1598 @@ public class TensorFlowExtensionTest {
                     "Please check the output node names."));
         }
     }
+
+    @Test
+    public void testingBatchModeWithScaleModel() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    switch (count.get()) {
+                        case 1:
+                            AssertJUnit.assertArrayEquals(new Float[]{2f, -4f}, new Object[]{
+                                    event.getData(0), event.getData(1)});
+                            break;
+                        case 2:
+                            AssertJUnit.assertArrayEquals(new Float[]{2f, 4f}, new Object[]{
+                                    event.getData(0), event.getData(1)});
+                            break;
+                        case 3:
+                            AssertJUnit.assertArrayEquals(new Float[]{10f, 4f}, new Object[]{
+                                    event.getData(0), event.getData(1)});
+                            break;
+                    }
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            inputHandler.send(new Event[]{
+                    new Event(System.currentTimeMillis(), new Object[]{"float:[1, -2]"}),
+                    new Event(System.currentTimeMillis(), new Object[]{"float:[1, 2, 3]"}),
+                    new Event(System.currentTimeMillis(), new Object[]{"float:[1, 2]"}),
+                    new Event(System.currentTimeMillis(), new Object[]{"float:[5, 2]"})});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        //the event with the inconsistent shape is dropped from the batch
+        AssertJUnit.assertEquals(3, count.get());
+    }
+
+    @Test
+    public void validatingBatchModeRequiresBatchDimension() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/KMeans");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        try {
+            SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+            Assert.fail("Batch mode should not be allowed for inputs without a variable leading dimension");
+        } catch (SiddhiAppCreationException e) {
+            AssertJUnit.assertTrue(e.getCause().getMessage().contains("Batch mode requires a variable leading " +
+                    "dimension but input inputPoint has a fixed shape in the signature def."));
+        }
+    }
+
+    @Test
+    public void validatingOptionIsSupported() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/KMeans");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.foo:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        try {
+            SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+            Assert.fail("Unknown options should not be allowed");
+        } catch (SiddhiAppCreationException e) {
+            AssertJUnit.assertTrue(e.getCause().getMessage().contains("The query parameter of index 5 is an " +
+                    "unknown option 'batch.foo'."));
+        }
+    }
+
+    @Test
+    public void testingBatchSizeAndTimeoutWithScaleModel() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.size:2', 'batch.timeout.ms:500') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        AtomicInteger noOfCallbacks = new AtomicInteger(0);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                noOfCallbacks.incrementAndGet();
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertEquals((float) count.get() * 2, event.getData(0));
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            inputHandler.send(new Object[]{"float:[1, 0]"});
+            AssertJUnit.assertEquals(0, count.get());
+            inputHandler.send(new Object[]{"float:[2, 0]"});
+            //batch size is reached so both the events are released together
+            AssertJUnit.assertEquals(2, count.get());
+            AssertJUnit.assertEquals(1, noOfCallbacks.get());
+
+            inputHandler.send(new Object[]{"float:[3, 0]"});
+            AssertJUnit.assertEquals(2, count.get());
+            //batch timeout releases the remaining event
+            for (int i = 0; i < 20 && count.get() < 3; i++) {
+                Thread.sleep(100);
+            }
+            AssertJUnit.assertEquals(3, count.get());
+            AssertJUnit.assertEquals(2, noOfCallbacks.get());
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    @Test
+    public void testingPrimitiveArrayInputWithRegressionModel() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Regression");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x Object);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Double[]{5.0161824226379395, -4.023891925811768},
+                            new Object[]{event.getData(0), event.getData(1)});
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            inputHandler.send(new Object[]{new double[]{1, -2}});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testingPrimitiveArrayInputsInBatchModeWithScaleModel() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x Object);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Float[]{count.get() * 2f, -count.get() * 2f},
+                            new Object[]{event.getData(0), event.getData(1)});
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            inputHandler.send(new Event[]{
+                    new Event(System.currentTimeMillis(), new Object[]{new float[]{1, -1}}),
+                    new Event(System.currentTimeMillis(), new Object[]{new float[]{2, -2}}),
+                    new Event(System.currentTimeMillis(), new Object[]{"float:[3, -3]"})});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(3, count.get());
+    }
+
+    @Test
+    public void testingModelIsSharedBetweenQueries() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/KMeans");
+        String[] tags = new String[]{"serve"};
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "/', 'inputPoint', " +
+                        "'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Float[]{0.49465084f, -0.29043096f}, new Object[]{
+                            event.getData(0), event.getData(1)});
+                }
+            }
+        };
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+        siddhiAppRuntime.addCallback("query2", queryCallback);
+        AssertJUnit.assertEquals(2, ModelRegistry.getReferenceCount(modelUrl.getPath(), tags,
+                new String[]{"serving_default"}));
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            inputHandler.send(new Object[]{"float:[1, -2]"});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(2, count.get());
+        AssertJUnit.assertEquals(0, ModelRegistry.getReferenceCount(modelUrl.getPath(), tags,
+                new String[]{"serving_default"}));
+    }
+
+    @Test
+    public void testingNativeResourcesAreReleased() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        long liveTensors = TensorTracker.getLiveTensorCount();
+        long liveBytes = TensorTracker.getLiveTensorBytes();
+        int loadedModels = ModelRegistry.getLoadedModelCount();
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                count.addAndGet(events.length);
+            }
+        };
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+        siddhiAppRuntime.addCallback("query2", queryCallback);
+        siddhiAppRuntime.start();
+        AssertJUnit.assertEquals(loadedModels + 1, ModelRegistry.getLoadedModelCount());
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            for (int i = 0; i < 10000; i++) {
+                inputHandler.send(new Object[]{"float:[" + i + ", 1]"});
+            }
+            try {
+                //fails within the session run of the first query
+                inputHandler.send(new Object[]{"int:[1, 2]"});
+            } catch (RuntimeException e) {
+                logger.info("Expected failure: " + e.getMessage());
+            }
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(20000, count.get());
+        AssertJUnit.assertEquals(liveTensors, TensorTracker.getLiveTensorCount());
+        AssertJUnit.assertEquals(liveBytes, TensorTracker.getLiveTensorBytes());
+        AssertJUnit.assertEquals(loadedModels, ModelRegistry.getLoadedModelCount());
+    }
+
+    @Test
+    public void testingModelReloadWithVersionedModel() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale/saved_model.pbtxt");
+        String savedModel = new String(Files.readAllBytes(Paths.get(modelUrl.toURI())), StandardCharsets.UTF_8);
+        Path modelPath = Files.createTempDirectory("Scale");
+        Files.createDirectories(modelPath.resolve("1"));
+        Files.write(modelPath.resolve("1/saved_model.pbtxt"), savedModel.getBytes(StandardCharsets.UTF_8));
+        AtomicReference<Float> output = new AtomicReference<>();
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelPath + "', 'inputPoint', " +
+                        "'outputPoint', x, 'model.reload.interval.ms:50') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    output.set((Float) event.getData(0));
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            inputHandler.send(new Object[]{"float:[1, 1]"});
+            AssertJUnit.assertEquals(2f, output.get());
+
+            //a version with different inputs is not swapped in
+            Files.createDirectories(modelPath.resolve("2"));
+            Files.write(modelPath.resolve("2/saved_model.pbtxt"), savedModel.replace("key: \"inputPoint\"",
+                    "key: \"inputValue\"").getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(500);
+            inputHandler.send(new Object[]{"float:[1, 1]"});
+            AssertJUnit.assertEquals(2f, output.get());
+
+            Files.createDirectories(modelPath.resolve("3"));
+            Files.write(modelPath.resolve("3/saved_model.pbtxt"), savedModel.replace("float_val: 2.0",
+                    "float_val: 3.0").getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 100 && output.get() != 3f; i++) {
+                Thread.sleep(50);
+                inputHandler.send(new Object[]{"float:[1, 1]"});
+            }
+            AssertJUnit.assertEquals(3f, output.get());
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    @Test
+    public void testingModelReloadOfIncompleteVersion() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale/saved_model.pbtxt");
+        String savedModel = new String(Files.readAllBytes(Paths.get(modelUrl.toURI())), StandardCharsets.UTF_8);
+        Path modelPath = Files.createTempDirectory("Scale");
+        Files.createDirectories(modelPath.resolve("1"));
+        Files.write(modelPath.resolve("1/saved_model.pbtxt"), savedModel.getBytes(StandardCharsets.UTF_8));
+        AtomicReference<Float> output = new AtomicReference<>();
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelPath + "', 'inputPoint', " +
+                        "'outputPoint', x, 'model.reload.interval.ms:50') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    output.set((Float) event.getData(0));
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            inputHandler.send(new Object[]{"float:[1, 1]"});
+            AssertJUnit.assertEquals(2f, output.get());
+
+            //the watcher finds the new version while it is still being written and fails to load it
+            String newVersion = savedModel.replace("float_val: 2.0", "float_val: 3.0");
+            Files.createDirectories(modelPath.resolve("2"));
+            Files.write(modelPath.resolve("2/saved_model.pbtxt"), newVersion.substring(0, newVersion.length() / 2)
+                    .getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(500);
+            inputHandler.send(new Object[]{"float:[1, 1]"});
+            AssertJUnit.assertEquals(2f, output.get());
+
+            //the same version is loaded once it is complete
+            Files.write(modelPath.resolve("2/saved_model.pbtxt"), newVersion.getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 100 && output.get() != 3f; i++) {
+                Thread.sleep(50);
+                inputHandler.send(new Object[]{"float:[1, 1]"});
+            }
+            AssertJUnit.assertEquals(3f, output.get());
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    @Test
+    public void testingAsyncInferenceKeepsEventOrder() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'async.workers:4', 'async.queue.size:8') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.size:10', 'async.workers:2') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        AtomicInteger query1Count = new AtomicInteger();
+        AtomicInteger query2Count = new AtomicInteger();
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    AssertJUnit.assertEquals(query1Count.getAndIncrement() * 2f, event.getData(0));
+                    count.incrementAndGet();
+                }
+            }
+        });
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    AssertJUnit.assertEquals(query2Count.getAndIncrement() * 2f, event.getData(0));
+                    count.incrementAndGet();
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            for (int i = 0; i < 500; i++) {
+                inputHandler.send(new Object[]{"float:[" + i + ", 1]"});
+            }
+            for (int i = 0; i < 100 && count.get() < 1000; i++) {
+                Thread.sleep(50);
+            }
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(500, query1Count.get());
+        AssertJUnit.assertEquals(500, query2Count.get());
+        AssertJUnit.assertEquals(1000, count.get());
+    }
+
+    @Test
+    public void testingInferenceMetrics() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        AtomicReference<SiddhiStatisticsManager> statisticsManager = new AtomicReference<>();
+        SiddhiManager siddhiManager = createSiddhiManagerWithStatistics(statisticsManager);
+        String inputStream = "@app:name('MetricsApp') @app:statistics(reporter = 'console', interval = '300') " +
+                "define stream InputStream1 (x String);" +
+                "define stream InputStream2 (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream1#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream2#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        String query1Metric = "io.siddhi.SiddhiApps.MetricsApp.Siddhi.Queries.query1.tensorFlow.";
+        String query2Metric = "io.siddhi.SiddhiApps.MetricsApp.Siddhi.Queries.query2.tensorFlow.";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.start();
+        InputHandler inputHandler1 = siddhiAppRuntime.getInputHandler("InputStream1");
+        InputHandler inputHandler2 = siddhiAppRuntime.getInputHandler("InputStream2");
+        try {
+            for (int i = 0; i < 10; i++) {
+                inputHandler1.send(new Object[]{"float:[" + i + ", 1]"});
+            }
+            inputHandler2.send(new Event[]{new Event(0, new Object[]{"float:[1, 1]"}),
+                    new Event(0, new Object[]{"float:[2, 1]"}), new Event(0, new Object[]{"float:[3, 1"})});
+            try {
+                //fails within the session run of the first query
+                inputHandler1.send(new Object[]{"int:[1, 2]"});
+            } catch (RuntimeException e) {
+                logger.info("Expected failure: " + e.getMessage());
+            }
+            //the histogram and gauges are only registered while the query runs
+            MetricRegistry registry = statisticsManager.get().getRegistry();
+            AssertJUnit.assertEquals(2, registry.histogram(query2Metric + "batch.size").getSnapshot().getMax());
+            AssertJUnit.assertTrue(registry.getGauges().containsKey(query1Metric + "native.bytes"));
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+
+        MetricRegistry registry = statisticsManager.get().getRegistry();
+        AssertJUnit.assertEquals(11, registry.timer(query1Metric + "feed.latency").getCount());
+        AssertJUnit.assertEquals(11, registry.timer(query1Metric + "run.latency").getCount());
+        AssertJUnit.assertEquals(10, registry.timer(query1Metric + "decode.latency").getCount());
+        AssertJUnit.assertEquals(10, registry.meter(query1Metric + "events.throughput").getCount());
+        AssertJUnit.assertEquals(1, registry.meter(query1Metric + "failed.throughput").getCount());
+        AssertJUnit.assertEquals(1, registry.timer(query2Metric + "run.latency").getCount());
+        AssertJUnit.assertEquals(2, registry.meter(query2Metric + "events.throughput").getCount());
+        AssertJUnit.assertEquals(1, registry.meter(query2Metric + "dropped.throughput").getCount());
+        AssertJUnit.assertEquals(1, registry.meter(query2Metric + "batches.throughput").getCount());
+        AssertJUnit.assertFalse(registry.getGauges().containsKey(query1Metric + "native.bytes"));
+        AssertJUnit.assertFalse(registry.getHistograms().containsKey(query2Metric + "batch.size"));
+    }
+
+    //keeps the statistics manager of the app to read its metric registry
+    private static SiddhiManager createSiddhiManagerWithStatistics(
+            AtomicReference<SiddhiStatisticsManager> statisticsManager) {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setStatisticsConfiguration(new StatisticsConfiguration(new SiddhiMetricsFactory() {
+            @Override
+            public StatisticsManager createStatisticsManager(String prefix, String siddhiAppName,
+                                                             List<Element> elements) {
+                statisticsManager.set((SiddhiStatisticsManager) super.createStatisticsManager(prefix,
+                        siddhiAppName, elements));
+                return statisticsManager.get();
+            }
+        }));
+        return siddhiManager;
+    }
+
+    @Test
+    public void testingPredictionCache() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        AtomicReference<SiddhiStatisticsManager> statisticsManager = new AtomicReference<>();
+        SiddhiManager siddhiManager = createSiddhiManagerWithStatistics(statisticsManager);
+        String inputStream = "@app:name('CacheApp') @app:statistics(reporter = 'console', interval = '300') " +
+                "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'cache.size:3') " +
+                        "select x, outputPoint0 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.size:4', 'cache.size:100', 'cache.ttl.ms:60000') " +
+                        "select x, outputPoint0 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        QueryCallback callback = new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    String input = (String) event.getData(0);
+                    float value = Float.parseFloat(input.substring(input.indexOf('[') + 1, input.indexOf(',')));
+                    AssertJUnit.assertEquals(value * 2f, event.getData(1));
+                    count.incrementAndGet();
+                }
+            }
+        };
+        siddhiAppRuntime.addCallback("query1", callback);
+        siddhiAppRuntime.addCallback("query2", callback);
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            for (int i = 0; i < 20; i++) {
+                inputHandler.send(new Object[]{"float:[" + (i % 2) + ", 1]"});
+            }
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(40, count.get());
+
+        MetricRegistry registry = statisticsManager.get().getRegistry();
+        String query1Metric = "io.siddhi.SiddhiApps.CacheApp.Siddhi.Queries.query1.tensorFlow.";
+        String query2Metric = "io.siddhi.SiddhiApps.CacheApp.Siddhi.Queries.query2.tensorFlow.";
+        AssertJUnit.assertEquals(2, registry.meter(query1Metric + "cache.misses.throughput").getCount());
+        AssertJUnit.assertEquals(18, registry.meter(query1Metric + "cache.hits.throughput").getCount());
+        AssertJUnit.assertEquals(2, registry.meter(query1Metric + "events.throughput").getCount());
+        //both values are missed within the first batch
+        AssertJUnit.assertEquals(4, registry.meter(query2Metric + "cache.misses.throughput").getCount());
+        AssertJUnit.assertEquals(16, registry.meter(query2Metric + "cache.hits.throughput").getCount());
+        AssertJUnit.assertEquals(1, registry.meter(query2Metric + "batches.throughput").getCount());
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingCacheTimeToLiveNeedsCacheSize() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'cache.ttl.ms:1000') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
+
+    @Test
+    public void testingMultipleSignatureDefs() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/MultiHead");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'scale_outputPoint', 'shift_outputPoint', x, 'model.tags:heads', " +
+                        "'signature.def.keys:scale, shift') " +
+                        "select scale_outputPoint0, scale_outputPoint1, shift_outputPoint0, shift_outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'model.tags:heads', 'signature.def.keys:shift', 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Object[]{6f, 2f, 4f, 2f}, event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Object[]{4f, 2f}, event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            //both signature defs are served by a single load of the model
+            AssertJUnit.assertEquals(1, ModelRegistry.getReferenceCount(modelUrl.getPath(),
+                    new String[]{"heads"}, new String[]{"scale", "shift"}));
+            inputHandler.send(new Object[]{"float:[3, 1]"});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(2, count.get());
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingSignatureDefKeyIsPresent() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/MultiHead");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'model.tags:heads', 'signature.def.keys:serving_default') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
+
+    @Test
+    public void testingSessionConfig() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        Map<String, String> extensionConfigs = new HashMap<>();
+        extensionConfigs.put("tensorFlow.predict.intra.op.parallelism", "1");
+        extensionConfigs.put("tensorFlow.predict.graph.optimization", "false");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setConfigManager(new InMemoryConfigManager(extensionConfigs, null));
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'intra.op.parallelism:2', 'inter.op.parallelism:1', 'xla.jit:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        QueryCallback callback = new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Object[]{2f, 4f}, event.getData());
+                }
+            }
+        };
+        siddhiAppRuntime.addCallback("query1", callback);
+        siddhiAppRuntime.addCallback("query2", callback);
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        String[] tags = new String[]{"serve"};
+        String[] signatureDefKeys = new String[]{"serving_default"};
+        try {
+            //the queries use separate sessions as their settings differ
+            AssertJUnit.assertEquals(1, ModelRegistry.getReferenceCount(modelUrl.getPath(), tags, signatureDefKeys,
+                    new SessionConfig(1, 0, false, false)));
+            AssertJUnit.assertEquals(1, ModelRegistry.getReferenceCount(modelUrl.getPath(), tags, signatureDefKeys,
+                    new SessionConfig(2, 1, false, true)));
+            inputHandler.send(new Object[]{"float:[1, 2]"});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(2, count.get());
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingSessionConfigIsNotNegative() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'inter.op.parallelism:-1') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
+
+    @Test
+    public void testingInferenceLanes() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        Map<String, String> extensionConfigs = new HashMap<>();
+        extensionConfigs.put("tensorFlow.predict.inference.lanes", "2");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setConfigManager(new InMemoryConfigManager(extensionConfigs, null));
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'inference.weight:3') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        QueryCallback callback = new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Object[]{2f, 4f}, event.getData());
+                }
+            }
+        };
+        siddhiAppRuntime.addCallback("query1", callback);
+        siddhiAppRuntime.addCallback("query2", callback);
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        try {
+            AssertJUnit.assertEquals(2, InferenceScheduler.getNoOfLanes());
+            for (int i = 0; i < 10; i++) {
+                inputHandler.send(new Object[]{"float:[1, 2]"});
+            }
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(20, count.get());
+        //the lanes are stopped along with the last query using them
+        AssertJUnit.assertEquals(0, InferenceScheduler.getNoOfLanes());
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingInferenceWeightNeedsInferenceLanes() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'inference.weight:2') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
+
+    @Test
+    public void testingConcurrentQueriesShareTheSession() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String, y float);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x) " +
+                        "select y, outputPoint0 " +
+                        "insert into OutputStream;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.size:4') " +
+                        "select y, outputPoint0 " +
+                        "insert into OutputStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        AtomicInteger wrongOutputs = new AtomicInteger();
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    if ((Float) event.getData(0) * 2 != (Float) event.getData(1)) {
+                        wrongOutputs.incrementAndGet();
+                    }
+                    count.incrementAndGet();
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread[] senders = new Thread[4];
+        try {
+            //the chunks of both queries run on the single session from all the sending threads at once
+            for (int i = 0; i < senders.length; i++) {
+                senders[i] = new Thread(() -> {
+                    try {
+                        for (int j = 0; j < 500; j++) {
+                            inputHandler.send(new Object[]{"float:[" + j + ", 1]", (float) j});
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                });
+                senders[i].start();
+            }
+            for (Thread sender : senders) {
+                sender.join();
+            }
+            //both queries reference the same loaded model
+            AssertJUnit.assertEquals(2, ModelRegistry.getReferenceCount(modelUrl.getPath(),
+                    new String[]{"serve"}, new String[]{"serving_default"}));
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertNull(error.get());
+        AssertJUnit.assertEquals(0, wrongOutputs.get());
+        AssertJUnit.assertEquals(4000, count.get());
+    }
+
+    @Test
+    public void testingPartitionsShareTheModel() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (key String, x String);";
+        String query = (
+                "partition with (key of InputStream) " +
+                "begin " +
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.size:2') " +
+                        "select key, outputPoint0, outputPoint1 " +
+                        "insert into OutputStream; " +
+                "end;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        Map<Object, Integer> eventsPerKey = new HashMap<>();
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                //the events of a key are buffered separately from the other keys
+                AssertJUnit.assertEquals(2, events.length);
+                for (Event event : events) {
+                    AssertJUnit.assertEquals(events[0].getData(0), event.getData(0));
+                    eventsPerKey.merge(event.getData(0), 1, Integer::sum);
+                    count.incrementAndGet();
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        String[] tags = new String[]{"serve"};
+        String[] signatureDefKeys = new String[]{"serving_default"};
+        try {
+            for (int i = 0; i < 2; i++) {
+                for (int key = 0; key < 100; key++) {
+                    inputHandler.send(new Object[]{"key" + key, "float:[1, 2]"});
+                }
+            }
+            //the partition keys only add their buffered events to the state, not another copy of the model
+            AssertJUnit.assertEquals(1, ModelRegistry.getReferenceCount(modelUrl.getPath(), tags, signatureDefKeys));
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(200, count.get());
+        AssertJUnit.assertEquals(100, eventsPerKey.size());
+    }
+
+    @Test
+    public void testingLazyModelLoading() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'model.loading:lazy') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Object[]{2f, 4f}, event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+        String[] tags = new String[]{"serve"};
+        String[] signatureDefKeys = new String[]{"serving_default"};
+        try {
+            //the return attributes are read from the SavedModel file, and the model is loaded by the first event
+            AssertJUnit.assertFalse(ModelRegistry.isLoaded(modelUrl.getPath(), tags, signatureDefKeys));
+            inputHandler.send(new Object[]{"float:[1, 2]"});
+            AssertJUnit.assertTrue(ModelRegistry.isLoaded(modelUrl.getPath(), tags, signatureDefKeys));
+            inputHandler.send(new Object[]{"float:[1, 2]"});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testingParallelModelLoading() throws InterruptedException {
+        URL scaleModelUrl = Resources.getResource("TensorFlowModels/Scale");
+        URL regressionModelUrl = Resources.getResource("TensorFlowModels/Regression");
+        Map<String, String> extensionConfigs = new HashMap<>();
+        extensionConfigs.put("tensorFlow.predict.model.loading", "parallel");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setConfigManager(new InMemoryConfigManager(extensionConfigs, null));
+        String inputStream = "define stream InputStream (x String, y Object);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + scaleModelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + regressionModelUrl.getPath() + "', " +
+                        "'inputPoint', 'outputPoint', y) " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                count.addAndGet(events.length);
+                AssertJUnit.assertArrayEquals(new Object[]{2f, 4f}, events[0].getData());
+            }
+        });
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                count.addAndGet(events.length);
+                AssertJUnit.assertEquals(2, events[0].getData().length);
+            }
+        });
+        siddhiAppRuntime.start();
+        String[] tags = new String[]{"serve"};
+        String[] signatureDefKeys = new String[]{"serving_default"};
+        try {
+            //starting the app waits for the models loading in the background
+            AssertJUnit.assertTrue(ModelRegistry.isLoaded(scaleModelUrl.getPath(), tags, signatureDefKeys));
+            AssertJUnit.assertTrue(ModelRegistry.isLoaded(regressionModelUrl.getPath(), tags, signatureDefKeys));
+            siddhiAppRuntime.getInputHandler("InputStream").send(new Object[]{"float:[1, 2]",
+                    new double[]{1, 2}});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(2, count.get());
+    }
+
+    @Test
+    public void validatingSignatureDefWithoutLoadingTheModel() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'wrongOutput', x, 'model.loading:lazy') " +
+                        "select wrongOutput0 " +
+                        "insert into OutputStream;"
+        );
+        try {
+            siddhiManager.createSiddhiAppRuntime(inputStream + query);
+            Assert.fail("The output node should be validated when the Siddhi app is created");
+        } catch (SiddhiAppCreationException e) {
+            AssertJUnit.assertTrue(e.getMessage().contains("wrongOutput not present in the signature def"));
+        }
+        AssertJUnit.assertEquals(0, ModelRegistry.getReferenceCount(modelUrl.getPath(), new String[]{"serve"},
+                new String[]{"serving_default"}));
+    }
+
+    @Test
+    public void testingModelWarmUp() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true', 'warmup.runs:2', 'warmup.batch.sizes:1, 8') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        //capturing the log of the extension to see that the warm up completed
+        StringWriter log = new StringWriter();
+        Logger extensionLogger = Logger.getLogger(TensorFlowExtension.class);
+        WriterAppender appender = new WriterAppender(new SimpleLayout(), log);
+        Level level = extensionLogger.getLevel();
+        extensionLogger.addAppender(appender);
+        extensionLogger.setLevel(Level.DEBUG);
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                for (Event event: events) {
+                    count.incrementAndGet();
+                    AssertJUnit.assertArrayEquals(new Object[]{2f, 4f}, event.getData());
+                }
+            }
+        });
+        long liveTensors = TensorTracker.getLiveTensorCount();
+        try {
+            siddhiAppRuntime.start();
+            AssertJUnit.assertTrue(log.toString().contains("Warmed up the model of query1"));
+            //the tensors of the warm up are released
+            AssertJUnit.assertEquals(liveTensors, TensorTracker.getLiveTensorCount());
+            siddhiAppRuntime.getInputHandler("InputStream").send(new Object[]{"float:[1, 2]"});
+        } finally {
+            extensionLogger.removeAppender(appender);
+            extensionLogger.setLevel(level);
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(1, count.get());
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingWarmUpBatchSizesNeedWarmUpRuns() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'warmup.batch.sizes:4') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
+
+    @Test
+    public void testingArrayAndTensorOutputModes() throws InterruptedException {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'output.mode:array') " +
+                        "select outputPoint " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true', 'output.mode:array') " +
+                        "select outputPoint " +
+                        "insert into OutputStream2;" +
+                "@info(name = 'query3') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'batch.mode:true', 'output.mode:tensor') " +
+                        "select outputPoint " +
+                        "insert into OutputStream3;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                //the output keeps the shape of the tensor fed for the event
+                AssertJUnit.assertArrayEquals(new float[]{2f, 4f}, (float[]) events[0].getData(0), 0f);
+                count.incrementAndGet();
+            }
+        });
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                AssertJUnit.assertArrayEquals(new float[]{2f, 4f}, (float[]) events[0].getData(0), 0f);
+                count.incrementAndGet();
+            }
+        });
+        siddhiAppRuntime.addCallback("query3", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                TensorValue tensorValue = (TensorValue) events[0].getData(0);
+                AssertJUnit.assertArrayEquals(new long[]{2}, tensorValue.getShape());
+                AssertJUnit.assertEquals(org.tensorflow.DataType.FLOAT, tensorValue.getDataType());
+                AssertJUnit.assertArrayEquals(new float[]{2f, 4f}, (float[]) tensorValue.getData(), 0f);
+                count.incrementAndGet();
+            }
+        });
+        siddhiAppRuntime.start();
+        try {
+            AssertJUnit.assertEquals(Attribute.Type.OBJECT, siddhiAppRuntime.getStreamDefinitionMap()
+                    .get("OutputStream1").getAttributeType("outputPoint"));
+            siddhiAppRuntime.getInputHandler("InputStream").send(new Object[]{"float:[1, 2]"});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(3, count.get());
+    }
+
+    @Test
+    public void testingImageInputs() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream1 (image object);" +
+                "define stream InputStream2 (image object);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream1#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', image, 'image.inputs:inputPoint', 'image.size:1,2') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream2#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', image, 'image.inputs:inputPoint', 'image.size:1,2', 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                //the pixels 51 and 255 are normalized to 0.2 and 1 before being doubled by the model
+                AssertJUnit.assertEquals(0.4f, (float) events[0].getData(0), 0.0001f);
+                AssertJUnit.assertEquals(2f, (float) events[0].getData(1), 0.0001f);
+                count.incrementAndGet();
+            }
+        });
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long l, Event[] events, Event[] events1) {
+                //the event with an image which can not be decoded is dropped from the batch
+                AssertJUnit.assertEquals(2, events.length);
+                for (Event event : events) {
+                    AssertJUnit.assertEquals(0.4f, (float) event.getData(0), 0.0001f);
+                    AssertJUnit.assertEquals(2f, (float) event.getData(1), 0.0001f);
+                    count.incrementAndGet();
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        try {
+            BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_BYTE_GRAY);
+            image.getRaster().setPixel(0, 0, new int[]{51});
+            image.getRaster().setPixel(1, 0, new int[]{255});
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", png);
+            siddhiAppRuntime.getInputHandler("InputStream1").send(new Object[]{png.toByteArray()});
+            siddhiAppRuntime.getInputHandler("InputStream2").send(new Event[]{
+                    new Event(System.currentTimeMillis(), new Object[]{png.toByteArray()}),
+                    new Event(System.currentTimeMillis(), new Object[]{new byte[]{1, 2, 3}}),
+                    new Event(System.currentTimeMillis(), new Object[]{png.toByteArray()})});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(3, count.get());
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingImageSizeNeedsImageInputs() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'image.size:1,2') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
+
+    @Test
+    public void testingSequenceInputs() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(new InMemoryPersistenceStore());
+        //the snapshot is restored by the app of the same name
+        String inputStream = "@App:name('SequenceApp') define stream InputStream (key String, x float);";
+        String query = (
+                "partition with (key of InputStream) " +
+                "begin " +
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'sequence.inputs:inputPoint') " +
+                        "select key, outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1; " +
+                "end;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'sequence.inputs:inputPoint', 'batch.mode:true') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        List<Object[]> partitionedOutputs = new ArrayList<>();
+        List<Object[]> batchedOutputs = new ArrayList<>();
+        StreamCallback partitionedCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    partitionedOutputs.add(event.getData());
+                }
+            }
+        };
+        StreamCallback batchedCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    batchedOutputs.add(event.getData());
+                }
+            }
+        };
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("OutputStream1", partitionedCallback);
+        siddhiAppRuntime.addCallback("OutputStream2", batchedCallback);
+        siddhiAppRuntime.start();
+        try {
+            InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+            inputHandler.send(new Object[]{"a", 1f});
+            inputHandler.send(new Object[]{"b", 10f});
+            inputHandler.send(new Object[]{"a", 2f});
+            inputHandler.send(new Event[]{
+                    new Event(System.currentTimeMillis(), new Object[]{"b", 20f}),
+                    new Event(System.currentTimeMillis(), new Object[]{"a", 3f})});
+            siddhiAppRuntime.persist().getFullStateFuture().get();
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        //the events are dropped until the sequence of their key has 2 readings
+        AssertJUnit.assertEquals(3, partitionedOutputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{"a", 2f, 4f}, partitionedOutputs.get(0));
+        AssertJUnit.assertArrayEquals(new Object[]{"b", 20f, 40f}, partitionedOutputs.get(1));
+        AssertJUnit.assertArrayEquals(new Object[]{"a", 4f, 6f}, partitionedOutputs.get(2));
+        AssertJUnit.assertEquals(4, batchedOutputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{40f, 6f}, batchedOutputs.get(3));
+
+        //the readings are restored along with the snapshot
+        partitionedOutputs.clear();
+        batchedOutputs.clear();
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("OutputStream1", partitionedCallback);
+        siddhiAppRuntime.addCallback("OutputStream2", batchedCallback);
+        siddhiAppRuntime.start();
+        try {
+            siddhiAppRuntime.restoreLastRevision();
+            siddhiAppRuntime.getInputHandler("InputStream").send(new Object[]{"b", 30f});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertArrayEquals(new Object[]{"b", 40f, 60f}, partitionedOutputs.get(0));
+        AssertJUnit.assertArrayEquals(new Object[]{6f, 60f}, batchedOutputs.get(0));
+    }
+
+    @Test
+    public void testingMultipleSequenceInputs() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Sum");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        //the model adds the sequences of 2 readings of both the inputs
+        String inputStream = "define stream InputStream (x float, y object);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'firstPoint', " +
+                        "'secondPoint', 'sumPoint', x, y, 'sequence.inputs:firstPoint,secondPoint') " +
+                        "select sumPoint0, sumPoint1 " +
+                        "insert into OutputStream1; " +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'firstPoint', " +
+                        "'secondPoint', 'sumPoint', x, y, 'sequence.inputs:firstPoint,secondPoint', " +
+                        "'batch.mode:true') " +
+                        "select sumPoint0, sumPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        List<Object[]> outputs = new ArrayList<>();
+        List<Object[]> batchedOutputs = new ArrayList<>();
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("OutputStream1", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    outputs.add(event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.addCallback("OutputStream2", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    batchedOutputs.add(event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        try {
+            InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+            inputHandler.send(new Object[]{1f, 10f});
+            inputHandler.send(new Object[]{2f, 20f});
+            //the event with an invalid reading is dropped without adding its readings to any of the windows
+            inputHandler.send(new Event[]{
+                    new Event(System.currentTimeMillis(), new Object[]{5f, "invalid"}),
+                    new Event(System.currentTimeMillis(), new Object[]{3f, 30f})});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        //both the windows are full from the second event on
+        AssertJUnit.assertEquals(2, outputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{11f, 22f}, outputs.get(0));
+        AssertJUnit.assertArrayEquals(new Object[]{22f, 33f}, outputs.get(1));
+        AssertJUnit.assertEquals(2, batchedOutputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{11f, 22f}, batchedOutputs.get(0));
+        AssertJUnit.assertArrayEquals(new Object[]{22f, 33f}, batchedOutputs.get(1));
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingSequenceInputsWithoutCache() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x float);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'sequence.inputs:inputPoint', 'cache.size:10') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
+
+    @Test
+    public void testingRecurrentState() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Recurrent");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(new InMemoryPersistenceStore());
+        //the model adds the input to the state fed back from its previous output
+        String inputStream = "@App:name('RecurrentApp') define stream InputStream (key String, x String);";
+        String query = (
+                "partition with (key of InputStream) " +
+                "begin " +
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'recurrent.state:stateOut=stateIn') " +
+                        "select key, outputPoint0 " +
+                        "insert into OutputStream; " +
+                "end;"
+        );
+        List<Object[]> outputs = new ArrayList<>();
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    outputs.add(event.getData());
+                }
+            }
+        };
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("OutputStream", streamCallback);
+        siddhiAppRuntime.start();
+        try {
+            InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+            inputHandler.send(new Object[]{"a", "float:[[1]]"});
+            inputHandler.send(new Object[]{"b", "float:[[10]]"});
+            inputHandler.send(new Object[]{"a", "float:[[2]]"});
+            inputHandler.send(new Object[]{"a", "float:[[3]]"});
+            siddhiAppRuntime.persist().getFullStateFuture().get();
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        //each key keeps its own state
+        AssertJUnit.assertEquals(4, outputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{"a", 1f}, outputs.get(0));
+        AssertJUnit.assertArrayEquals(new Object[]{"b", 10f}, outputs.get(1));
+        AssertJUnit.assertArrayEquals(new Object[]{"a", 3f}, outputs.get(2));
+        AssertJUnit.assertArrayEquals(new Object[]{"a", 6f}, outputs.get(3));
+
+        //the states are restored along with the snapshot
+        outputs.clear();
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("OutputStream", streamCallback);
+        siddhiAppRuntime.start();
+        try {
+            siddhiAppRuntime.restoreLastRevision();
+            siddhiAppRuntime.getInputHandler("InputStream").send(new Object[]{"a", "float:[[4]]"});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertArrayEquals(new Object[]{"a", 10f}, outputs.get(0));
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingRecurrentStateWithoutBatchMode() {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Recurrent");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'outputPoint', x, 'recurrent.state:stateOut=stateIn', 'batch.mode:true') " +
+                        "select outputPoint0 " +
+                        "insert into OutputStream;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
+
+    @Test
+    public void testingSelectedOutputs() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Projection");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        //the model fails whenever checkedPoint is fetched, so only the selected output should be run
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'scaledPoint', 'checkedPoint', x) " +
+                        "select scaledPoint1 " +
+                        "insert into OutputStream; " +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'scaledPoint', 'checkedPoint', x, 'batch.mode:true') " +
+                        "select scaledPoint1 " +
+                        "insert into BatchOutputStream; " +
+                "@info(name = 'query3') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'scaledPoint', 'checkedPoint', x, 'output.mode:array') " +
+                        "select scaledPoint " +
+                        "insert into ArrayOutputStream;"
+        );
+        List<Object[]> outputs = new ArrayList<>();
+        List<Object[]> batchOutputs = new ArrayList<>();
+        List<Object[]> arrayOutputs = new ArrayList<>();
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    outputs.add(event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.addCallback("BatchOutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    batchOutputs.add(event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.addCallback("ArrayOutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    arrayOutputs.add(event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        try {
+            InputHandler inputHandler = siddhiAppRuntime.getInputHandler("InputStream");
+            inputHandler.send(new Event[]{new Event(System.currentTimeMillis(), new Object[]{"float:[[1, 2]]"}),
+                    new Event(System.currentTimeMillis(), new Object[]{"float:[[3, 4]]"})});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        AssertJUnit.assertEquals(2, outputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{4f}, outputs.get(0));
+        AssertJUnit.assertArrayEquals(new Object[]{8f}, outputs.get(1));
+        AssertJUnit.assertEquals(2, batchOutputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{4f}, batchOutputs.get(0));
+        AssertJUnit.assertArrayEquals(new Object[]{8f}, batchOutputs.get(1));
+        AssertJUnit.assertEquals(2, arrayOutputs.size());
+        AssertJUnit.assertArrayEquals(new float[]{2f, 4f}, ((float[][]) arrayOutputs.get(0)[0])[0], 0f);
+        AssertJUnit.assertArrayEquals(new float[]{6f, 8f}, ((float[][]) arrayOutputs.get(1)[0])[0], 0f);
+    }
+    @Test
+    public void testingSelectedOutputsAfterDynamicOutput() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Dynamic");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        //the values of dynamicPoint, which has more elements than its return attributes, shift those of fixedPoint
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'dynamicPoint', 'fixedPoint', x) " +
+                        "select dynamicPoint0, fixedPoint0, fixedPoint1 " +
+                        "insert into OutputStream; " +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelUrl.getPath() + "', 'inputPoint', " +
+                        "'dynamicPoint', 'fixedPoint', x) " +
+                        "select fixedPoint1 " +
+                        "insert into SelectedOutputStream;"
+        );
+        List<Object[]> outputs = new ArrayList<>();
+        List<Object[]> selectedOutputs = new ArrayList<>();
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inputStream + query);
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    outputs.add(event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.addCallback("SelectedOutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    selectedOutputs.add(event.getData());
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        try {
+            siddhiAppRuntime.getInputHandler("InputStream").send(new Object[]{"float:[[1, 2, 3]]"});
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        //the attributes get the same values whether or not all of them are used
+        AssertJUnit.assertEquals(1, outputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{1f, 2f, 3f}, outputs.get(0));
+        AssertJUnit.assertEquals(1, selectedOutputs.size());
+        AssertJUnit.assertArrayEquals(new Object[]{3f}, selectedOutputs.get(0));
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void testingConflictingReloadIntervals() throws Exception {
+        URL modelUrl = Resources.getResource("TensorFlowModels/Scale/saved_model.pbtxt");
+        Path modelPath = Files.createTempDirectory("Scale");
+        Files.createDirectories(modelPath.resolve("1"));
+        Files.copy(Paths.get(modelUrl.toURI()), modelPath.resolve("1/saved_model.pbtxt"));
+
+        //both queries share the model, which is watched at a single interval
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inputStream = "define stream InputStream (x String);";
+        String query = (
+                "@info(name = 'query1') " +
+                        "from InputStream#tensorFlow:predict('" + modelPath + "', 'inputPoint', " +
+                        "'outputPoint', x, 'model.reload.interval.ms:50') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream1;" +
+                "@info(name = 'query2') " +
+                        "from InputStream#tensorFlow:predict('" + modelPath + "', 'inputPoint', " +
+                        "'outputPoint', x, 'model.reload.interval.ms:100') " +
+                        "select outputPoint0, outputPoint1 " +
+                        "insert into OutputStream2;"
+        );
+        siddhiManager.createSiddhiAppRuntime(inputStream + query);
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.event.ComplexEventChunk;
+import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncInferenceStageTest {
+
+    @Test
+    public void testingSubmitAfterStop() {
+        AtomicInteger emitted = new AtomicInteger();
+        AsyncInferenceStage stage = new AsyncInferenceStage("stage", 2, 4, chunk -> {
+        }, chunk -> emitted.incrementAndGet());
+        stage.submit(newChunk());
+        stage.stop();
+        AssertJUnit.assertEquals(1, emitted.get());
+        try {
+            stage.submit(newChunk());
+            AssertJUnit.fail("Submitting to a stopped stage should fail");
+        } catch (SiddhiAppRuntimeException e) {
+            AssertJUnit.assertEquals(1, emitted.get());
+        }
+    }
+
+    @Test
+    public void testingSubmitWhileStopping() throws InterruptedException {
+        AtomicInteger emitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AsyncInferenceStage stage = new AsyncInferenceStage("stage", 2, 4, chunk -> {
+        }, chunk -> emitted.incrementAndGet());
+        Thread[] submitters = new Thread[4];
+        for (int i = 0; i < submitters.length; i++) {
+            submitters[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    try {
+                        stage.submit(newChunk());
+                    } catch (SiddhiAppRuntimeException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+            submitters[i].start();
+        }
+        stage.stop();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        //each chunk is either emitted before the stage stops or rejected, none of them is left in the queue
+        AssertJUnit.assertEquals(4000, emitted.get() + rejected.get());
+    }
+
+    private static ComplexEventChunk<StreamEvent> newChunk() {
+        StreamEvent event = new StreamEvent(0, 0, 0);
+        return new ComplexEventChunk<>(event, event, false);
+    }
+}
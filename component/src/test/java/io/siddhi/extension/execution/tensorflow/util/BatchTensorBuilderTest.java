@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class BatchTensorBuilderTest {
+
+    @Test
+    public void testingStackingBeyondTheInitialCapacity() {
+        BatchTensorBuilder builder = new BatchTensorBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.add(new double[]{i, i + 0.5});
+        }
+        try (Tensor tensor = builder.build()) {
+            AssertJUnit.assertEquals(DataType.DOUBLE, tensor.dataType());
+            AssertJUnit.assertTrue(Arrays.equals(new long[]{100, 2}, tensor.shape()));
+            double[][] values = new double[100][2];
+            tensor.copyTo(values);
+            AssertJUnit.assertEquals(0.5, values[0][1]);
+            AssertJUnit.assertEquals(99.5, values[99][1]);
+        }
+    }
+
+    @Test
+    public void testingReuseAfterReset() {
+        BatchTensorBuilder builder = new BatchTensorBuilder();
+        builder.add(new float[][]{{1, 2}, {3, 4}});
+        builder.add("float:[[5, 6], [7, 8]]");
+        try (Tensor tensor = builder.build()) {
+            float[][][] values = new float[2][2][2];
+            tensor.copyTo(values);
+            AssertJUnit.assertEquals(8f, values[1][1][1]);
+        }
+
+        //the next batch may have a different type and shape
+        builder.reset();
+        builder.add(3);
+        builder.add(4);
+        builder.add(5);
+        builder.removeLast();
+        AssertJUnit.assertEquals(2, builder.getBatchSize());
+        try (Tensor tensor = builder.build()) {
+            AssertJUnit.assertEquals(DataType.INT32, tensor.dataType());
+            int[] values = new int[2];
+            tensor.copyTo(values);
+            AssertJUnit.assertTrue(Arrays.equals(new int[]{3, 4}, values));
+        }
+    }
+
+    @Test(expectedExceptions = SiddhiAppRuntimeException.class)
+    public void validatingInconsistentShapes() {
+        BatchTensorBuilder builder = new BatchTensorBuilder();
+        builder.add(new long[]{1, 2});
+        builder.add(new long[]{1, 2, 3});
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+public class ImageDecoderTest {
+
+    @Test
+    public void testingResizingToRgb() throws IOException {
+        ImageDecoder decoder = ImageDecoder.create("image", getTensorInfo(org.tensorflow.framework.DataType.DT_UINT8,
+                -1, 2, 2, 3), null, 0, true);
+        try (Tensor tensor = decoder.createTensor(getPng(4, 4, BufferedImage.TYPE_INT_RGB, 0x0a141e))) {
+            AssertJUnit.assertEquals(DataType.UINT8, tensor.dataType());
+            AssertJUnit.assertTrue(Arrays.equals(new long[]{1, 2, 2, 3}, tensor.shape()));
+            byte[][][][] pixels = new byte[1][2][2][3];
+            tensor.copyTo(pixels);
+            AssertJUnit.assertTrue(Arrays.equals(new byte[]{10, 20, 30}, pixels[0][1][1]));
+        }
+    }
+
+    @Test
+    public void testingDecodingAChunkToFlattenedGray() throws IOException {
+        ImageDecoder decoder = ImageDecoder.create("image", getTensorInfo(org.tensorflow.framework.DataType.DT_FLOAT,
+                -1, 4), new int[]{2, 2}, 0, true);
+        //the color images are converted to gray
+        List<Object[]> inputValuesList = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            inputValuesList.add(new Object[]{getPng(2, 2, BufferedImage.TYPE_INT_RGB, 0x333333), 1f});
+        }
+        inputValuesList.add(new Object[]{new byte[]{1, 2, 3}, 1f});
+        List<Object[]> decodedValuesList = ImageDecoder.decodeAll(inputValuesList,
+                new ImageDecoder[]{decoder, null});
+        AssertJUnit.assertTrue(decodedValuesList.get(8)[0] instanceof SiddhiAppRuntimeException);
+
+        BatchTensorBuilder builder = new BatchTensorBuilder();
+        for (Object[] decodedValues : decodedValuesList.subList(0, 8)) {
+            builder.addImage((BufferedImage) decodedValues[0], decoder);
+        }
+        try (Tensor tensor = builder.build()) {
+            AssertJUnit.assertTrue(Arrays.equals(new long[]{8, 4}, tensor.shape()));
+            float[][] pixels = new float[8][4];
+            tensor.copyTo(pixels);
+            AssertJUnit.assertEquals(0.2f, pixels[7][3], 0.0001f);
+        }
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingSizeOfFlattenedImages() {
+        ImageDecoder.create("image", getTensorInfo(org.tensorflow.framework.DataType.DT_FLOAT, -1, 784), null, 0,
+                true);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingDataTypeOfImages() {
+        ImageDecoder.create("image", getTensorInfo(org.tensorflow.framework.DataType.DT_STRING, -1, 28, 28), null,
+                0, true);
+    }
+
+    private static TensorInfo getTensorInfo(org.tensorflow.framework.DataType dataType, long... dims) {
+        TensorShapeProto.Builder shape = TensorShapeProto.newBuilder();
+        for (long dim : dims) {
+            shape.addDim(TensorShapeProto.Dim.newBuilder().setSize(dim));
+        }
+        return TensorInfo.newBuilder().setDtype(dataType).setTensorShape(shape).build();
+    }
+
+    private static byte[] getPng(int height, int width, int type, int rgb) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+}
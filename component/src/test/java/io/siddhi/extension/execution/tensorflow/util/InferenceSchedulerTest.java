@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+
+public class InferenceSchedulerTest {
+
+    @Test
+    public void testingWeightedShareOfTheLanes() throws Exception {
+        InferenceScheduler.Client heavy = InferenceScheduler.register("heavy", 1, 3);
+        InferenceScheduler.Client light = InferenceScheduler.register("light", 1, 1);
+        try {
+            //holding the only lane so that the inferences of both clients queue up
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            heavy.submit(() -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            blocked.await();
+            List<String> order = Collections.synchronizedList(new ArrayList<>());
+            List<FutureTask<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                tasks.add(heavy.submit(() -> order.add("heavy")));
+                tasks.add(light.submit(() -> order.add("light")));
+            }
+            AssertJUnit.assertEquals(20, heavy.getQueueSize());
+            AssertJUnit.assertEquals(40, InferenceScheduler.getTotalQueueDepth());
+            release.countDown();
+            for (FutureTask<Void> task : tasks) {
+                task.get();
+            }
+            AssertJUnit.assertEquals(0, InferenceScheduler.getTotalQueueDepth());
+            //the heavy client gets three times the share of the light one while both are waiting
+            int heavyCount = Collections.frequency(order.subList(0, 20), "heavy");
+            AssertJUnit.assertTrue("Heavy client ran " + heavyCount + " of the first 20 inferences",
+                    heavyCount >= 14 && heavyCount <= 16);
+        } finally {
+            InferenceScheduler.unregister(heavy);
+            InferenceScheduler.unregister(light);
+        }
+        AssertJUnit.assertEquals(0, InferenceScheduler.getNoOfLanes());
+    }
+
+    @Test
+    public void testingErrorsAreThrownToTheCaller() {
+        InferenceScheduler.Client client = InferenceScheduler.register("client", 2, 1);
+        try {
+            client.execute(() -> {
+                throw new SiddhiAppRuntimeException("inference failed");
+            });
+            AssertJUnit.fail("The error of the inference should be thrown");
+        } catch (SiddhiAppRuntimeException e) {
+            AssertJUnit.assertEquals("inference failed", e.getMessage());
+        } finally {
+            InferenceScheduler.unregister(client);
+        }
+    }
+
+    @Test
+    public void testingPendingInferencesAreCancelledOnUnregister() throws Exception {
+        InferenceScheduler.Client client = InferenceScheduler.register("client", 1, 1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FutureTask<Void> running = client.submit(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocked.await();
+        FutureTask<Void> pending = client.submit(() -> { });
+        InferenceScheduler.unregister(client);
+        release.countDown();
+        //the running inference completes while the pending one is discarded
+        running.get();
+        AssertJUnit.assertTrue(pending.isCancelled());
+        try {
+            client.submit(() -> { });
+            AssertJUnit.fail("Inferences should not be accepted after unregistering");
+        } catch (SiddhiAppRuntimeException e) {
+            AssertJUnit.assertEquals(0, InferenceScheduler.getNoOfLanes());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import org.tensorflow.DataType;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PredictionCacheTest {
+
+    @Test
+    public void testingLeastRecentlyUsedEviction() {
+        PredictionCache cache = new PredictionCache(2, -1, () -> 0);
+        Object[] output1 = new Object[]{1f};
+        Object[] output2 = new Object[]{2f};
+        cache.put(new Object[]{"float:[1, 1]"}, null, output1);
+        cache.put(new Object[]{"float:[2, 1]"}, null, output2);
+        //using the first entry so that the second one is evicted
+        AssertJUnit.assertEquals(Arrays.asList(output1),
+                Arrays.asList(cache.get(new Object[]{"float:[1, 1]"}, null)));
+        cache.put(new Object[]{"float:[3, 1]"}, null, new Object[]{3f});
+        AssertJUnit.assertEquals(2, cache.size());
+        AssertJUnit.assertNull(cache.get(new Object[]{"float:[2, 1]"}, null));
+        AssertJUnit.assertEquals(Arrays.asList(output1),
+                Arrays.asList(cache.get(new Object[]{"float:[1, 1]"}, null)));
+    }
+
+    @Test
+    public void testingArrayInputsAndTimeToLive() {
+        AtomicLong time = new AtomicLong(1000);
+        PredictionCache cache = new PredictionCache(10, 100, time::get);
+        float[] features = new float[]{1, 2};
+        Object[] output = new Object[]{3f};
+        cache.put(new Object[]{features, new double[][]{{1, 2}}}, null, output);
+
+        //arrays are matched by content and modifying the given array does not change the cached key
+        features[0] = 5;
+        AssertJUnit.assertNull(cache.get(new Object[]{features, new double[][]{{1, 2}}}, null));
+        AssertJUnit.assertEquals(Arrays.asList(output),
+                Arrays.asList(cache.get(new Object[]{new float[]{1, 2}, new double[][]{{1, 2}}}, null)));
+
+        time.addAndGet(100);
+        AssertJUnit.assertNull(cache.get(new Object[]{new float[]{1, 2}, new double[][]{{1, 2}}}, null));
+        AssertJUnit.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testingArrayOutputsAreNotShared() {
+        PredictionCache cache = new PredictionCache(10, -1, () -> 0);
+        float[][] arrayOutput = new float[][]{{1, 2}};
+        TensorValue tensorOutput = new TensorValue(new long[]{1, 2}, DataType.FLOAT, new float[]{1, 2});
+        cache.put(new Object[]{"float:[1, 1]"}, null, new Object[]{arrayOutput, tensorOutput});
+
+        //modifying the outputs of the event which was predicted or of an event hitting the cache does not change the
+        //outputs of the other events hitting it
+        arrayOutput[0][0] = 5;
+        ((float[]) tensorOutput.getData())[0] = 5;
+        Object[] output = cache.get(new Object[]{"float:[1, 1]"}, null);
+        AssertJUnit.assertTrue(Arrays.deepEquals(new float[][]{{1, 2}}, (float[][]) output[0]));
+        AssertJUnit.assertEquals(new TensorValue(new long[]{1, 2}, DataType.FLOAT, new float[]{1, 2}), output[1]);
+        ((float[][]) output[0])[0][1] = 6;
+        ((float[]) ((TensorValue) output[1]).getData())[1] = 6;
+        output = cache.get(new Object[]{"float:[1, 1]"}, null);
+        AssertJUnit.assertTrue(Arrays.deepEquals(new float[][]{{1, 2}}, (float[][]) output[0]));
+        AssertJUnit.assertEquals(new TensorValue(new long[]{1, 2}, DataType.FLOAT, new float[]{1, 2}), output[1]);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class SequenceWindowTest {
+
+    @Test
+    public void testingSequenceIsWrittenOldestFirst() {
+        SequenceWindow window = SequenceWindow.create("sequence", getTensorInfo(DataType.DT_DOUBLE, -1, -1, 2), 3);
+        AssertJUnit.assertNull(window.addAndCreateTensor(new double[]{1, 2}));
+        AssertJUnit.assertNull(window.addAndCreateTensor(new double[]{3, 4}));
+        window.addAndCreateTensor(new double[]{5, 6}).close();
+        //the oldest reading is replaced once the window is full
+        try (Tensor tensor = window.addAndCreateTensor(new double[]{7, 8})) {
+            AssertJUnit.assertTrue(Arrays.equals(new long[]{1, 3, 2}, tensor.shape()));
+            double[][][] values = new double[1][3][2];
+            tensor.copyTo(values);
+            AssertJUnit.assertTrue(Arrays.deepEquals(new double[][]{{3, 4}, {5, 6}, {7, 8}}, values[0]));
+        }
+
+        //a restored window continues from the readings of the snapshot
+        SequenceWindow restored = window.newWindow();
+        AssertJUnit.assertTrue(restored.isEmpty());
+        restored.restore(window.snapshot());
+        try (Tensor tensor = restored.addAndCreateTensor(new double[]{9, 10})) {
+            double[][][] values = new double[1][3][2];
+            tensor.copyTo(values);
+            AssertJUnit.assertTrue(Arrays.deepEquals(new double[][]{{5, 6}, {7, 8}, {9, 10}}, values[0]));
+        }
+    }
+
+    @Test(expectedExceptions = SiddhiAppRuntimeException.class)
+    public void validatingFeaturesOfReadings() {
+        SequenceWindow window = SequenceWindow.create("sequence", getTensorInfo(DataType.DT_FLOAT, -1, 4, 2), 0);
+        window.add(new float[]{1, 2, 3});
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void validatingLengthOfSequences() {
+        SequenceWindow.create("sequence", getTensorInfo(DataType.DT_FLOAT, -1, 4, 2), 5);
+    }
+
+    private static TensorInfo getTensorInfo(DataType dataType, long... dims) {
+        TensorShapeProto.Builder shape = TensorShapeProto.newBuilder();
+        for (long dim : dims) {
+            shape.addDim(TensorShapeProto.Dim.newBuilder().setSize(dim));
+        }
+        return TensorInfo.newBuilder().setDtype(dataType).setTensorShape(shape).build();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.tensorflow.DataType;
+import org.testng.Assert;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TensorStringParserTest {
+
+    @Test
+    public void testingShapeAndValues() {
+        TensorStringParser parser = new TensorStringParser();
+        parser.parse("float:[[1.5, -2], [3e2, 0.25]]");
+        AssertJUnit.assertEquals(DataType.FLOAT, parser.getDataType());
+        AssertJUnit.assertTrue(Arrays.equals(new long[]{2, 2}, parser.getShape()));
+        AssertJUnit.assertTrue(Arrays.equals(new float[]{1.5f, -2f, 300f, 0.25f},
+                Arrays.copyOf(parser.getFloatValues(), parser.getSize())));
+
+        //buffers are reused for the next input
+        parser.parse(" long : [ 7 , -9223372036854775808 , 12345678901234 ] ");
+        AssertJUnit.assertEquals(DataType.INT64, parser.getDataType());
+        AssertJUnit.assertTrue(Arrays.equals(new long[]{3}, parser.getShape()));
+        AssertJUnit.assertTrue(Arrays.equals(new long[]{7, Long.MIN_VALUE, 12345678901234L},
+                Arrays.copyOf(parser.getLongValues(), parser.getSize())));
+
+        parser.parse("int:42");
+        AssertJUnit.assertEquals(DataType.INT32, parser.getDataType());
+        AssertJUnit.assertEquals(0, parser.getShape().length);
+        AssertJUnit.assertEquals(42, parser.getIntValues()[0]);
+    }
+
+    @Test
+    public void testingNumbersMatchTheJdk() {
+        TensorStringParser parser = new TensorStringParser();
+        Random random = new Random(42);
+        StringBuilder floatBuilder = new StringBuilder("float:[");
+        StringBuilder doubleBuilder = new StringBuilder("double:[");
+        String[] samples = new String[1000];
+        for (int i = 0; i < samples.length; i++) {
+            switch (i % 4) {
+                case 0:
+                    samples[i] = Float.toString((random.nextFloat() - 0.5f) * (float) Math.pow(10, random.nextInt(20)));
+                    break;
+                case 1:
+                    samples[i] = Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(60) - 30));
+                    break;
+                case 2:
+                    samples[i] = String.format("%.9f", random.nextDouble());
+                    break;
+                default:
+                    samples[i] = Long.toString(random.nextLong()) + "." + Math.abs(random.nextInt());
+            }
+            floatBuilder.append(i == 0 ? "" : ", ").append(samples[i]);
+            doubleBuilder.append(i == 0 ? "" : ", ").append(samples[i]);
+        }
+        parser.parse(floatBuilder.append("]").toString());
+        for (int i = 0; i < samples.length; i++) {
+            Assert.assertEquals(parser.getFloatValues()[i], Float.parseFloat(samples[i]), 0f, samples[i]);
+        }
+        parser.parse(doubleBuilder.append("]").toString());
+        for (int i = 0; i < samples.length; i++) {
+            Assert.assertEquals(parser.getDoubleValues()[i], Double.parseDouble(samples[i]), 0d, samples[i]);
+        }
+    }
+
+    @Test(expectedExceptions = SiddhiAppRuntimeException.class,
+            expectedExceptionsMessageRegExp = "Array size is inconsistent")
+    public void testingInconsistentArray() {
+        new TensorStringParser().parse("float:[[1, 2], [3]]");
+    }
+
+    @Test(expectedExceptions = SiddhiAppRuntimeException.class,
+            expectedExceptionsMessageRegExp = "Array encoded as String should have one of int, long, float, double " +
+                    "as prefix but given short")
+    public void testingUnknownDataType() {
+        new TensorStringParser().parse("short:[1, 2]");
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testingInvalidNumber() {
+        new TensorStringParser().parse("int:[1, 2.5]");
+    }
+}
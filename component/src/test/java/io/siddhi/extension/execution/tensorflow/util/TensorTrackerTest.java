@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.tensorflow.util;
+
+import org.tensorflow.Tensor;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+public class TensorTrackerTest {
+
+    @Test
+    public void testingClosingTwice() {
+        long liveTensors = TensorTracker.getLiveTensorCount();
+        long liveBytes = TensorTracker.getLiveTensorBytes();
+        Tensor tensor = TensorTracker.track(Tensor.create(new float[]{1, 2, 3}));
+        AssertJUnit.assertEquals(liveTensors + 1, TensorTracker.getLiveTensorCount());
+        AssertJUnit.assertEquals(liveBytes + 12, TensorTracker.getLiveTensorBytes());
+
+        //the second close must not count the tensor again
+        TensorTracker.close(tensor);
+        TensorTracker.close(tensor);
+        AssertJUnit.assertEquals(liveTensors, TensorTracker.getLiveTensorCount());
+        AssertJUnit.assertEquals(liveBytes, TensorTracker.getLiveTensorBytes());
+    }
+
+    @Test
+    public void testingClosingUntrackedTensor() {
+        long liveTensors = TensorTracker.getLiveTensorCount();
+        long liveBytes = TensorTracker.getLiveTensorBytes();
+        TensorTracker.close(Tensor.create(new float[]{1, 2}));
+        AssertJUnit.assertEquals(liveTensors, TensorTracker.getLiveTensorCount());
+        AssertJUnit.assertEquals(liveBytes, TensorTracker.getLiveTensorBytes());
+    }
+}